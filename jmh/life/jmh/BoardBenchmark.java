@@ -0,0 +1,57 @@
+/**
+ * @class BoardBenchmark
+ * @description This class benchmarks filling a gameboard with a random soup and
+ * clearing it. The soups are drawn from one generator so every call fills a new
+ * board, and each iteration of clear starts from a full board.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    // Fields
+    @Param({"256", "1024"})
+    public int size;
+
+    private Object board;
+    private Random random = new Random(1);
+
+    @Setup(Level.Iteration)
+    public void setup() throws Throwable {
+        board = (Object) Game.BOARD.invokeExact(Game.grid("bitboard", size, size));
+        Game.RANDOM.invokeExact(board, 1L, 0.5);
+    }
+
+    @Benchmark
+    public void random() throws Throwable {
+        Game.FILL.invokeExact(board, random, 0.5);
+    }
+
+    @Benchmark
+    public void clear() throws Throwable {
+        Game.CLEAR.invokeExact(board);
+    }
+}
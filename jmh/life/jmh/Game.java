@@ -0,0 +1,98 @@
+/**
+ * @class Game
+ * @description This class reaches the classes of the game for the JMH benchmarks.
+ * The game lives in the default package, which can not be imported from the
+ * package JMH needs the benchmarks in, so its constructors and methods are looked
+ * up once as method handles. The handles are constant, so calls through them
+ * are compiled as direct calls.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+
+final class Game {
+
+    // Fields
+    static final MethodHandle BIT_BOARD, ACTIVE_GRID, ARRAY_GRID;    // (int rows, int columns) -> Object grid
+    static final MethodHandle CREATE;                               // (int rows, int columns, int threads, boolean vector) -> Object grid
+    static final MethodHandle ENGINE;                               // (Object grid) -> String
+    static final MethodHandle BOARD;                                // (Object grid) -> Object board
+    static final MethodHandle RANDOM;                               // (Object board, long seed, double density)
+    static final MethodHandle FILL;                                 // (Object board, Random random, double density)
+    static final MethodHandle NEXT;                                 // (Object board) -> boolean
+    static final MethodHandle CLEAR;                                // (Object board)
+    static final MethodHandle PRESET;                               // (Object board, Object brush, boolean, int, int)
+    static final MethodHandle BRUSH;                                // (String name) -> Object brush
+    static final MethodHandle SCANNER;                              // () -> Object scanner
+    static final MethodHandle SCAN;                                 // (Object scanner, File, int scale, int rows, int columns) -> int[]
+    static final MethodHandle CLEAR_CACHE;                          // (Object scanner)
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> grid = Class.forName("Grid"), board = Class.forName("GameBoard"), brush = Class.forName("BrushType");
+            Class<?> bitBoard = Class.forName("BitBoard"), scanner = Class.forName("ColorScanner");
+            MethodType size = MethodType.methodType(void.class, int.class, int.class);
+            MethodType created = MethodType.methodType(Object.class, int.class, int.class);
+            BIT_BOARD = lookup.findConstructor(bitBoard, size).asType(created);
+            ACTIVE_GRID = lookup.findConstructor(Class.forName("ActiveGrid"), size).asType(created);
+            ARRAY_GRID = lookup.findConstructor(Class.forName("ArrayGrid"), size).asType(created);
+            CREATE = lookup.findStatic(bitBoard, "create",
+                    MethodType.methodType(bitBoard, int.class, int.class, int.class, boolean.class))
+                .asType(MethodType.methodType(Object.class, int.class, int.class, int.class, boolean.class));
+            ENGINE = lookup.findVirtual(bitBoard, "getEngine", MethodType.methodType(String.class))
+                .asType(MethodType.methodType(String.class, Object.class));
+            BOARD = lookup.findConstructor(board, MethodType.methodType(void.class, grid))
+                .asType(MethodType.methodType(Object.class, Object.class));
+            RANDOM = lookup.findVirtual(board, "random", MethodType.methodType(void.class, long.class, double.class))
+                .asType(MethodType.methodType(void.class, Object.class, long.class, double.class));
+            FILL = lookup.findVirtual(board, "random", MethodType.methodType(void.class, Random.class, double.class))
+                .asType(MethodType.methodType(void.class, Object.class, Random.class, double.class));
+            NEXT = lookup.findVirtual(board, "next", MethodType.methodType(boolean.class))
+                .asType(MethodType.methodType(boolean.class, Object.class));
+            CLEAR = lookup.findVirtual(board, "clear", MethodType.methodType(void.class))
+                .asType(MethodType.methodType(void.class, Object.class));
+            PRESET = lookup.findVirtual(board, "preset",
+                    MethodType.methodType(void.class, brush, boolean.class, int.class, int.class))
+                .asType(MethodType.methodType(void.class, Object.class, Object.class, boolean.class, int.class, int.class));
+            BRUSH = lookup.findStatic(brush, "valueOf", MethodType.methodType(brush, String.class))
+                .asType(MethodType.methodType(Object.class, String.class));
+            SCANNER = lookup.findStatic(scanner, "getColorScanner", MethodType.methodType(scanner))
+                .asType(MethodType.methodType(Object.class));
+            SCAN = lookup.findVirtual(scanner, "scan",
+                    MethodType.methodType(int[].class, File.class, int.class, int.class, int.class))
+                .asType(MethodType.methodType(int[].class, Object.class, File.class, int.class, int.class, int.class));
+            CLEAR_CACHE = lookup.findVirtual(scanner, "clearCache", MethodType.methodType(void.class))
+                .asType(MethodType.methodType(void.class, Object.class));
+        } catch(ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Game() {}
+
+    /**
+     * Grid
+     * This method creates an empty grid of the parameter kind and size.
+     *
+     * @param kind       bitboard, active or array
+     * @param rows       the number of rows
+     * @param columns    the number of columns
+     * @return Object    the grid.
+     */
+    static Object grid(String kind, int rows, int columns) throws Throwable {
+        switch(kind) {
+            case "bitboard": return (Object) BIT_BOARD.invokeExact(rows, columns);
+            case "active": return (Object) ACTIVE_GRID.invokeExact(rows, columns);
+            case "array": return (Object) ARRAY_GRID.invokeExact(rows, columns);
+            default: throw new IllegalArgumentException("unknown grid " + kind);
+        }
+    }
+}
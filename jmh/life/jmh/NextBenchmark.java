@@ -0,0 +1,72 @@
+/**
+ * @class NextBenchmark
+ * @description This class benchmarks GameBoard.next() on each grid over board
+ * sizes and densities. Each iteration starts from the same seeded soup, or with
+ * settled the soup is run past generation 1000 once and every iteration steps
+ * on from where the last one stopped, so the steady state of ash and gliders is
+ * measured.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NextBenchmark {
+
+    // Fields
+    @Param({"bitboard", "active", "array"})
+    public String grid;
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean settled;
+
+    private Object board;
+
+    @Setup(Level.Trial)
+    public void settle() throws Throwable {
+        board = (Object) Game.BOARD.invokeExact(Game.grid(grid, size, size));
+        Game.RANDOM.invokeExact(board, 1L, density);
+        for(int g = 0; settled && g < 1000; g++) {
+            Game.NEXT.invoke(board);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void refill() throws Throwable {
+        // a settled soup steps on from where the last iteration stopped
+        if(!settled) {
+            Game.RANDOM.invokeExact(board, 1L, density);
+        }
+    }
+
+    @Benchmark
+    public boolean next() throws Throwable {
+        return (boolean) Game.NEXT.invokeExact(board);
+    }
+}
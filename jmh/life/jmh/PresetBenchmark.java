@@ -0,0 +1,55 @@
+/**
+ * @class PresetBenchmark
+ * @description This class benchmarks stamping every BrushType onto the middle
+ * of an empty board. Each stamp is painted then erased by the next call, so
+ * every call flips the nodes of the brush rather than finding them already set.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PresetBenchmark {
+
+    // Fields
+    @Param({"SINGLE", "BLOCK", "CIRCLE", "BEEHIVE", "LOAF", "BOAT", "TUB", "BLINKER", "TOAD", "BEACON", "PULSAR",
+            "PENTADECATHLON", "GLIDER", "LIGHTSPACESHIP", "MIDSPACESHIP", "HEAVYSPACESHIP", "RPENTOMINO", "DIEHARD",
+            "ACORN", "GOSPERGLIDERGUN"})
+    public String brush;
+
+    private Object board, bt;
+    private boolean paint;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Throwable {
+        board = (Object) Game.BOARD.invokeExact(Game.grid("bitboard", 256, 256));
+        bt = (Object) Game.BRUSH.invokeExact(brush);
+        paint = true;
+    }
+
+    @Benchmark
+    public void preset() throws Throwable {
+        Game.PRESET.invokeExact(board, bt, paint, 128, 128);
+        paint = !paint;
+    }
+}
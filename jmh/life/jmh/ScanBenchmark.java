@@ -0,0 +1,57 @@
+/**
+ * @class ScanBenchmark
+ * @description This class benchmarks ColorScanner.scan() of the light theme
+ * gradient for a 1024x1024 board, reading the image every call with the cache
+ * cleared, and answered from the cache. The image is read from the design
+ * directory, so the benchmarks are run from the root of the repository.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScanBenchmark {
+
+    // Fields
+    private static final File FILE = new File("design/gradient-light.png");
+    private Object scanner;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        if(!FILE.isFile()) {
+            throw new IllegalStateException(FILE + " not found, run the benchmarks from the root of the repository");
+        }
+        scanner = (Object) Game.SCANNER.invokeExact();
+    }
+
+    @Benchmark
+    public int[] uncached() throws Throwable {
+        Game.CLEAR_CACHE.invokeExact(scanner);
+        return (int[]) Game.SCAN.invokeExact(scanner, FILE, 1, 1024, 1024);
+    }
+
+    @Benchmark
+    public int[] cached() throws Throwable {
+        return (int[]) Game.SCAN.invokeExact(scanner, FILE, 1, 1024, 1024);
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * @class WidthBenchmark
+ * @description This class benchmarks GameBoard.next() on the scalar and vector
+ * bit-packed engines over board widths, see BitBoard.create(). The vector engine
+ * needs the jdk.incubator.vector module, without it its benchmarks fail in setup
+ * rather than measure the scalar engine again.
+ * @author Damon Greenhalgh
+ */
+
+package life.jmh;
+
+ // dependencies
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WidthBenchmark {
+
+    // Fields
+    @Param({"scalar", "vector"})
+    public String engine;
+
+    @Param({"256", "1024", "4096", "16384"})
+    public int width;
+
+    private Object board;
+
+    @Setup(Level.Trial)
+    public void create() throws Throwable {
+        Object grid = (Object) Game.CREATE.invokeExact(256, width, 1, engine.equals("vector"));
+        String created = (String) Game.ENGINE.invokeExact(grid);
+        if(!created.startsWith(engine)) {
+            throw new IllegalStateException("the " + engine + " engine is not available, got " + created);
+        }
+        board = (Object) Game.BOARD.invokeExact(grid);
+    }
+
+    @Setup(Level.Iteration)
+    public void refill() throws Throwable {
+        Game.RANDOM.invokeExact(board, 1L, 0.5);
+    }
+
+    @Benchmark
+    public boolean next() throws Throwable {
+        return (boolean) Game.NEXT.invokeExact(board);
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * @class ActiveGrid
+ * @description This class defines a grid that only evaluates the nodes that can
+ * change. Each node keeps a count of its alive neighbours which is updated when
+ * a neighbour changes, a node can only change if it or one of its neighbours
+ * changed in the last iteration, so only those nodes are evaluated. When most
+ * of the board is active the grid falls back to evaluating every node. Under a
+ * generations rule dying nodes change every iteration, so they stay active.
+ * The edges of the grid are dead, other topologies are rejected.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.Arrays;
+
+public class ActiveGrid implements Grid {
+
+    // Fields
+    private byte[] states, counts;    // state and number of alive neighbours of each node
+    private int[] changed, flips;     // nodes changed in the last iteration, nodes changing in this one
+    private byte[] values;            // the state each node in flips changes to
+    private int[] marks;              // iteration each node was last evaluated
+    private int rows, columns, numChanged, epoch;
+    private boolean dense;            // evaluate every node next iteration
+    private long births, deaths, evaluated;
+    private long hash;                // zobrist hash of the nodes that are not dead
+    private Rule rule = Rule.LIFE;
+
+    /**
+     * Constructor
+     * Generates an empty grid.
+     */
+    public ActiveGrid(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        states = new byte[rows * columns];
+        counts = new byte[rows * columns];
+        changed = new int[rows * columns];
+        flips = new int[rows * columns];
+        values = new byte[rows * columns];
+        marks = new int[rows * columns];
+    }
+
+    // Accessors/Mutators
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getEvaluated() { return evaluated; }
+    public long getHash() { return hash; }
+    public Rule getRule() { return rule; }
+    public boolean getState(int i, int j) { return states[i * columns + j] == 1; }
+    public int getValue(int i, int j) { return states[i * columns + j] & 0xFF; }
+    public void setState(int i, int j, boolean state) {
+        setValue(i, j, state ? 1 : 0);
+    }
+    public void setValue(int i, int j, int value) {
+        int index = i * columns + j;
+        if(getValue(i, j) != value) {
+            set(index, value);
+            if(numChanged < changed.length) {
+                changed[numChanged++] = index;
+            } else {
+                dense = true;
+            }
+        }
+    }
+    public void setRule(Rule rule) {
+        this.rule = rule;
+        for(int index = 0; index < states.length; index++) {
+            if((states[index] & 0xFF) >= rule.getStates()) {
+                set(index, 0);
+            }
+        }
+        dense = true;
+    }
+
+    /**
+     * Clear
+     * This method clears the grid, sets all nodes to dead.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(states, (byte) 0);
+        Arrays.fill(counts, (byte) 0);
+        hash = 0;
+        numChanged = 0;
+        dense = false;
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game. The nodes that
+     * changed last iteration and their neighbours are evaluated, unless more
+     * than an eighth of the board changed in which case every node is. Rules
+     * where nodes with no alive neighbours are born always evaluate every node.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+        int numFlips = 0;
+        evaluated = 0;
+
+        if(dense || numChanged > states.length / 8 || rule.isBorn(0)) {
+            for(int index = 0; index < states.length; index++) {
+                int next = rule.next(states[index] & 0xFF, counts[index]);
+                if(next != (states[index] & 0xFF)) {
+                    values[numFlips] = (byte) next;
+                    flips[numFlips++] = index;
+                }
+            }
+            evaluated = states.length;
+        } else {
+            if(++epoch == 0) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+            for(int n = 0; n < numChanged; n++) {
+                int index = changed[n];
+                int i = index / columns, j = index % columns;
+                for(int di = Math.max(i - 1, 0); di <= Math.min(i + 1, rows - 1); di++) {
+                    for(int dj = Math.max(j - 1, 0); dj <= Math.min(j + 1, columns - 1); dj++) {
+                        int other = di * columns + dj;
+                        if(marks[other] != epoch) {
+                            marks[other] = epoch;
+                            evaluated++;
+                            int next = rule.next(states[other] & 0xFF, counts[other]);
+                            if(next != (states[other] & 0xFF)) {
+                                values[numFlips] = (byte) next;
+                                flips[numFlips++] = other;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // apply the changes only once every node has been evaluated
+        births = 0;
+        deaths = 0;
+        for(int n = 0; n < numFlips; n++) {
+            births += values[n] == 1 ? 1 : 0;
+            deaths += states[flips[n]] == 1 ? 1 : 0;
+            set(flips[n], values[n]);
+        }
+
+        // the nodes flipped this iteration are the ones to evaluate next
+        int[] tmp = changed;
+        changed = flips;
+        flips = tmp;
+        numChanged = numFlips;
+        dense = false;
+
+        return numFlips == 0;
+    }
+
+    /**
+     * Set
+     * This method sets the state of the parameter node and updates the hash, and
+     * the neighbour count of the nodes around it when it becomes or stops being alive.
+     */
+    private void set(int index, int value) {
+        int state = states[index] & 0xFF;
+        hash ^= Grid.key(index, state) ^ Grid.key(index, value);
+        states[index] = (byte) value;
+        if((state == 1) == (value == 1)) {
+            return;
+        }
+
+        int i = index / columns, j = index % columns;
+        int delta = value == 1 ? 1 : -1;
+        for(int di = Math.max(i - 1, 0); di <= Math.min(i + 1, rows - 1); di++) {
+            for(int dj = Math.max(j - 1, 0); dj <= Math.min(j + 1, columns - 1); dj++) {
+                if(di != i || dj != j) {
+                    counts[di * columns + dj] += delta;
+                }
+            }
+        }
+    }
+}
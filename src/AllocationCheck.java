@@ -0,0 +1,124 @@
+/**
+ * @class AllocationCheck
+ * @description This class is used to check that stepping a board allocates no
+ * memory. Each grid is filled with a random board and warmed up, then the bytes
+ * allocated on this thread are measured around many calls to next(), of the grid
+ * and of a gameboard with no recording or metrics. The check fails, exiting with
+ * status 1, if any grid allocated a byte, or if the population recorded by a
+ * gameboard whose metrics were turned off and on again is not that of its board.
+ *
+ * Usage: java AllocationCheck [generations]
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Random;
+
+public class AllocationCheck {
+
+    // Fields
+    private static final int WARMUP = 20000;    // generations run before measuring
+    private static com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        boolean failed = false;
+        System.out.printf(Locale.ROOT, "%-24s %14s%n", "grid", "bytes");
+
+        failed |= check("bitboard", new BitBoard(128, 128), false, generations);
+        failed |= check("bitboard.torus", torus(new BitBoard(128, 128)), false, generations);
+        failed |= check("array", new ArrayGrid(128, 128), false, generations);
+        failed |= check("active", new ActiveGrid(128, 128), false, generations);
+        failed |= check("gameboard.bitboard", new BitBoard(128, 128), true, generations);
+        failed |= check("gameboard.array", new ArrayGrid(128, 128), true, generations);
+        if(failed) {
+            System.out.println("FAILED: next() allocated memory");
+            System.exit(1);
+        }
+        if(population()) {
+            System.out.println("FAILED: the recorded population is stale");
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    /**
+     * Torus
+     * This method joins the edges of the parameter grid.
+     */
+    private static BitBoard torus(BitBoard grid) {
+        grid.setTopology(TopologyType.TORUS);
+        return grid;
+    }
+
+    /**
+     * Check
+     * This method warms up and measures the bytes allocated by stepping the
+     * parameter grid, the board is refilled whenever it halts so every
+     * generation does some work.
+     *
+     * @param game        true to step the gameboard, false to step the grid
+     * @return boolean    true if any byte was allocated, false otherwise.
+     */
+    private static boolean check(String name, Grid grid, boolean game, int generations) {
+        Random random = new Random(1);
+        GameBoard board = new GameBoard(grid);
+        board.random(random, 0.5);
+        step(board, game, random, WARMUP);
+
+        long id = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(id);
+        long overhead = threads.getThreadAllocatedBytes(id) - allocated;
+        allocated = threads.getThreadAllocatedBytes(id);
+        int refills = step(board, game, random, generations);
+        allocated = threads.getThreadAllocatedBytes(id) - allocated - overhead;
+        System.out.printf(Locale.ROOT, "%-24s %14d%s%n", name, allocated, refills > 0 ? "  (" + refills + " refills)" : "");
+        return allocated != 0;
+    }
+
+    /**
+     * Population
+     * This method steps a gameboard with the metrics on, then off, then on
+     * again, and compares the population last recorded with that of the board.
+     *
+     * @return boolean    true if the populations differ, false otherwise.
+     */
+    private static boolean population() {
+        Metrics metrics = Metrics.getMetrics();
+        boolean enabled = metrics.isEnabled();
+        GameBoard board = new GameBoard(new BitBoard(128, 128));
+        board.random(1, 0.5);
+        for(int g = 0; g < 55; g++) {
+            metrics.setEnabled(g < 5);
+            board.next();
+        }
+        metrics.setEnabled(true);
+        board.next();
+        metrics.setEnabled(enabled);
+
+        long recorded = metrics.last(Metrics.POPULATION), population = board.getGrid().population();
+        System.out.printf(Locale.ROOT, "%-24s %14d  (board %d)%n", "population", recorded, population);
+        return recorded != population;
+    }
+
+    /**
+     * Step
+     * This method calls next() on the gameboard or its grid, refilling the
+     * board on a halt.
+     *
+     * @return int    the number of times the board was refilled.
+     */
+    private static int step(GameBoard board, boolean game, Random random, int generations) {
+        int refills = 0;
+        for(int g = 0; g < generations; g++) {
+            if(game ? board.next() : board.getGrid().next()) {
+                board.random(random, 0.5);
+                refills++;
+            }
+        }
+        return refills;
+    }
+}
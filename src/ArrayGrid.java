@@ -0,0 +1,124 @@
+/**
+ * @class ArrayGrid
+ * @description This class defines a grid backed by two arrays of node states. Each
+ * node is evolved one at a time, it is the reference implementation of the rules
+ * of the game that the faster grids are checked against.
+ * @author Damon Greenhalgh
+ */
+
+public class ArrayGrid implements Grid {
+
+    // Fields
+    private byte[][] cells, buffer;    // current and next iteration, swapped after each step
+    private int rows, columns;
+    private long hash;    // zobrist hash of the nodes that are not dead
+    private long births, deaths;    // changes made by the last iteration
+    private Rule rule = Rule.LIFE;
+
+    /**
+     * Constructor
+     * Generates an empty grid.
+     */
+    public ArrayGrid(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        cells = new byte[rows][columns];
+        buffer = new byte[rows][columns];
+    }
+
+    // Accessors/Mutators
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public boolean getState(int i, int j) { return cells[i][j] == 1; }
+    public int getValue(int i, int j) { return cells[i][j] & 0xFF; }
+    public long getHash() { return hash; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public Rule getRule() { return rule; }
+    public void setState(int i, int j, boolean state) {
+        setValue(i, j, state ? 1 : 0);
+    }
+    public void setValue(int i, int j, int value) {
+        hash ^= Grid.key((long) i * columns + j, getValue(i, j)) ^ Grid.key((long) i * columns + j, value);
+        cells[i][j] = (byte) value;
+    }
+    public void setRule(Rule rule) {
+        this.rule = rule;
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+                if(getValue(i, j) >= rule.getStates()) {
+                    setValue(i, j, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear
+     * This method clears the grid, sets all nodes to false (dead).
+     */
+    @Override
+    public void clear() {
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+                cells[i][j] = 0;
+            }
+        }
+        hash = 0;
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game. The next iteration
+     * is written into the buffer which is then swapped with the current board,
+     * so no memory is allocated per iteration.
+     * 
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+
+        int sum;
+        int numChanges = 0;    // used to check if the game has halted
+        births = 0;
+        deaths = 0;
+
+        // iterate through each node on the game board.
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+
+                // determine the number of alive neighbours around the node,
+                // neighbours outside of the board are dead
+                sum = 0;
+                for(int di = Math.max(i - 1, 0); di <= Math.min(i + 1, rows - 1); di++) {
+                    for(int dj = Math.max(j - 1, 0); dj <= Math.min(j + 1, columns - 1); dj++) {
+                        if(cells[di][dj] == 1 && (di != i || dj != j)) {
+                            sum++;
+                        }
+                    }
+                }
+
+                // determine action depending on the rule of the game
+                int state = cells[i][j] & 0xFF;
+                int next = rule.next(state, sum);
+                buffer[i][j] = (byte) next;
+                if(next != state) {
+                    hash ^= Grid.key((long) i * columns + j, state) ^ Grid.key((long) i * columns + j, next);
+                    births += next == 1 ? 1 : 0;
+                    deaths += state == 1 ? 1 : 0;
+                    numChanges++;
+                }
+            }
+        }
+        
+        // swap the buffers, the old iteration is overwritten next step
+        byte[][] tmp = cells;
+        cells = buffer;
+        buffer = tmp;
+
+        if(numChanges == 0) {
+            return true;
+        }
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,578 @@
+/**
+ * @class Batch
+ * @description This class is used to run the game without a display. A board is
+ * set up from the command line, stepped until it halts, enters a cycle or reaches
+ * the requested number of generations, and a summary of the run is printed. No
+ * AWT or Swing classes are loaded so it can run in scripts and containers.
+ *
+ * Usage: java Batch [options]
+ *   --size ROWSxCOLUMNS        board size, default 256x256
+ *   --seed N                   seed of the random fill, default random
+ *   --density D                probability of a node being alive, default 0.5, 0 for none
+ *   --pattern BRUSH@ROW,COL    stamp a BrushType or a pattern file, may be repeated
+ *   --load FILE[@ROW,COL]      stream a pattern file onto the board, replacing the random fill
+ *   --generations N            maximum number of generations, or 2^K, default 1000
+ *   --topology TYPE            DEAD, TORUS, KLEIN or UNBOUNDED, default DEAD. An UNBOUNDED board is
+ *                              the window at (0, 0) of an unbounded universe, see UnboundedGrid
+ *   --rule RULE                a RuleType or a rulestring such as B36/S23 or B2/S/C3, default
+ *                              the rule of the loaded pattern file, otherwise LIFE
+ *   --threads N                step on N threads, default 1, or run soups on N threads, default
+ *                              every processor
+ *   --engine TYPE              SCALAR, VECTOR, ACTIVE or HASHLIFE, default SCALAR. The vector engine needs
+ *                              the jdk.incubator.vector module and falls back to SCALAR without it.
+ *                              ACTIVE only evaluates the nodes near the last changes, with dead edges.
+ *                              HASHLIFE jumps straight to the last generation in an unbounded
+ *                              universe under LIFE, the board is the window of it at (0, 0)
+ *   --out FILE                 write the final board as plaintext (.cells)
+ *   --resume FILE              continue the board saved in a board file, see BoardFile
+ *   --save FILE                save the final board to a board file
+ *   --checkpoint N             also save the board every N generations
+ *   --mapped FILE              run the board out of core in FILE and FILE.next, see MappedBoard,
+ *                              continuing the board in FILE if it exists
+ *   --soups N                  run a census of N random soups of the board size, each filled from
+ *                              its own seed and run until it halts, cycles or reaches the
+ *                              generation limit, printing the longest lived, see SoupSearch
+ *   --top N                    number of longest lived soups printed, default 10
+ *   --tiles RxC                split the board into R by C tiles stepped by separate worker processes,
+ *                              exchanging their borders every generation, see TileCoordinator
+ *   --port P                   wait on port P for the tile workers, started with java TileWorker HOST:P,
+ *                              by default the workers are started on this machine
+ *   --metrics on|off           record each generation and print the p50 and p99 step time, births,
+ *                              deaths and bytes allocated, default off, see Metrics
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+
+public class Batch {
+
+    public static void main(String[] args) throws IOException {
+        int rows = 256, columns = 256, threads = 0, top = 10, port = 0;
+        long seed = new Random().nextLong(), generations = 1000, checkpoint = 0, soups = 0;
+        double density = 0.5;
+        boolean metrics = false;
+        TopologyType topology = TopologyType.DEAD;
+        String out = null, load = null, resume = null, save = null, rule = null, mapped = null, tiles = null;
+        String engine = "scalar";
+        ArrayList<String> patterns = new ArrayList<String>();
+
+        // parse options
+        for(int a = 0; a < args.length; a++) {
+            String option = args[a];
+            if(a + 1 >= args.length) {
+                usage("missing value for " + option);
+            }
+            String value = args[++a];
+            switch(option) {
+                case "--size": {
+                    String[] size = value.toLowerCase(Locale.ROOT).split("x");
+                    rows = Integer.parseInt(size[0]);
+                    columns = Integer.parseInt(size[1]);
+                    break;
+                } case "--seed": {
+                    seed = Long.parseLong(value);
+                    break;
+                } case "--density": {
+                    density = Double.parseDouble(value);
+                    break;
+                } case "--pattern": {
+                    patterns.add(value);
+                    break;
+                } case "--load": {
+                    load = value;
+                    break;
+                } case "--resume": {
+                    resume = value;
+                    break;
+                } case "--save": {
+                    save = value;
+                    break;
+                } case "--mapped": {
+                    mapped = value;
+                    break;
+                } case "--checkpoint": {
+                    checkpoint = Long.parseLong(value);
+                    break;
+                } case "--generations": {
+                    generations = count(value);
+                    break;
+                } case "--topology": {
+                    topology = TopologyType.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                } case "--rule": {
+                    rule = value;
+                    break;
+                } case "--engine": {
+                    engine = value.toLowerCase(Locale.ROOT);
+                    if(!engine.equals("scalar") && !engine.equals("vector") && !engine.equals("active")
+                            && !engine.equals("hashlife")) {
+                        usage("engine must be SCALAR, VECTOR, ACTIVE or HASHLIFE: " + value);
+                    }
+                    break;
+                } case "--threads": {
+                    threads = Integer.parseInt(value);
+                    break;
+                } case "--out": {
+                    out = value;
+                    break;
+                } case "--soups": {
+                    soups = Long.parseLong(value);
+                    break;
+                } case "--top": {
+                    top = Integer.parseInt(value);
+                    break;
+                } case "--tiles": {
+                    tiles = value;
+                    break;
+                } case "--port": {
+                    port = Integer.parseInt(value);
+                    break;
+                } case "--metrics": {
+                    metrics = value.equalsIgnoreCase("on");
+                    if(!metrics && !value.equalsIgnoreCase("off")) {
+                        usage("metrics must be on or off: " + value);
+                    }
+                    break;
+                } default: {
+                    usage("unknown option " + option);
+                }
+            }
+        }
+
+        if(soups > 0) {
+            runSoups(rows, columns, seed, density, rule == null ? Rule.LIFE : rule(rule), topology, generations,
+                soups, threads == 0 ? Runtime.getRuntime().availableProcessors() : threads, top);
+            return;
+        }
+        if(tiles != null) {
+            String[] parts = tiles.toLowerCase(Locale.ROOT).split("x");
+            if(parts.length != 2) {
+                usage("tiles must be ROWSxCOLUMNS: " + tiles);
+            }
+            runTiles(rows, columns, Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), port, seed, density,
+                rule == null ? Rule.LIFE : rule(rule), topology, generations, out);
+            return;
+        }
+        threads = Math.max(1, threads);
+        if(mapped != null) {
+            runMapped(new File(mapped), rows, columns, seed, density, load, patterns, rule, generations);
+            return;
+        }
+
+        // setup board
+        boolean vector = engine.equals("vector");
+        Grid grid;
+        if(topology == TopologyType.UNBOUNDED) {
+            if(!engine.equals("scalar") && !engine.equals("hashlife")) {
+                usage("an unbounded universe runs on the SCALAR or HASHLIFE engine");
+            }
+            if(save != null) {
+                usage("an unbounded universe can not be saved to a board file");
+            }
+            grid = new UnboundedGrid(rows, columns);
+        } else if(engine.equals("active")) {
+            grid = new ActiveGrid(rows, columns);
+        } else {
+            grid = BitBoard.create(rows, columns, threads, vector);
+        }
+        try {
+            grid.setTopology(topology);
+        } catch(IllegalArgumentException e) {
+            usage(e.getMessage());
+        }
+        GameBoard board = new GameBoard(grid);
+        if(resume != null) {
+            if(engine.equals("active")) {
+                usage("a board file is resumed on the SCALAR or VECTOR engine");
+            }
+            board = BoardFile.load(new File(resume), threads, vector);
+            grid = board.getGrid();
+            rows = board.getRows();
+            columns = board.getColumns();
+            seed = board.getSeed();
+            topology = grid.getTopology();
+        } else if(load != null) {
+            String[] parts = load.split("@");
+            String[] position = parts.length == 2 ? parts[1].split(",") : new String[] {"0", "0"};
+            if(parts.length > 2 || position.length != 2) {
+                usage("load must be FILE[@ROW,COL]: " + load);
+            }
+            String loaded = board.load(new File(parts[0]), Integer.parseInt(position[0]), Integer.parseInt(position[1]));
+            if(rule == null && loaded != null) {
+                rule = loaded;
+            }
+        } else if(density > 0) {
+            board.random(seed, density);
+        }
+        if(rule != null) {
+            try {
+                board.setRule(rule(rule));
+            } catch(IllegalArgumentException e) {
+                usage(e.getMessage());
+            }
+        }
+        for(String pattern : patterns) {
+            int at = pattern.lastIndexOf('@');
+            String[] position = pattern.substring(at + 1).split(",");
+            if(at < 0 || position.length != 2) {
+                usage("pattern must be BRUSH@ROW,COL: " + pattern);
+            }
+            String brush = pattern.substring(0, at);
+            int row = Integer.parseInt(position[0]), column = Integer.parseInt(position[1]);
+            if(new File(brush).isFile()) {
+                board.preset(PatternReader.read(new File(brush)), true, row, column);
+            } else {
+                board.preset(BrushType.valueOf(brush.toUpperCase(Locale.ROOT)), true, row, column);
+            }
+        }
+
+        if(engine.equals("hashlife")) {
+            runHashLife(board, topology, generations, out, save);
+            return;
+        }
+
+        // run
+        Metrics.getMetrics().setEnabled(metrics);
+        boolean halted = false;
+        long start = System.nanoTime();
+        while(board.getGeneration() < generations && !halted && board.getPeriod() == 0) {
+            halted = board.next();
+            if(save != null && checkpoint > 0 && board.getGeneration() % checkpoint == 0) {
+                BoardFile.save(board, new File(save));
+            }
+        }
+        long time = System.nanoTime() - start;
+        if(grid instanceof ParallelBitBoard) {
+            ((ParallelBitBoard) grid).shutdown();
+        }
+
+        // report
+        System.out.printf(Locale.ROOT, "size: %dx%d%n", rows, columns);
+        System.out.printf(Locale.ROOT, "seed: %d%n", seed);
+        System.out.printf(Locale.ROOT, "topology: %s%n", topology);
+        if(grid instanceof UnboundedGrid) {
+            System.out.printf(Locale.ROOT, "engine: sparse, %d tiles%n", ((UnboundedGrid) grid).getUniverse().getTileCount());
+        } else {
+            System.out.printf(Locale.ROOT, "engine: %s%n", grid instanceof BitBoard ? ((BitBoard) grid).getEngine() : engine);
+        }
+        System.out.printf(Locale.ROOT, "rule: %s%n", board.getRule());
+        System.out.printf(Locale.ROOT, "generations: %d%n", board.getGeneration());
+        System.out.printf(Locale.ROOT, "population: %d%n", grid.population());
+
+        // a halted board has been still since the generation before the one it stopped at
+        if(halted) {
+            System.out.printf(Locale.ROOT, "halted: generation %d%n", board.getGeneration() - 1);
+        } else if(board.getPeriod() > 0) {
+            System.out.printf(Locale.ROOT, "cycle: period %d from generation %d%n", board.getPeriod(), board.getCycleStart());
+        } else {
+            System.out.printf(Locale.ROOT, "running: true%n");
+        }
+        System.out.printf(Locale.ROOT, "time: %.3f ms%n", time / 1e6);
+        System.out.printf(Locale.ROOT, "generations/s: %.1f%n", board.getGeneration() / (time / 1e9));
+        if(metrics) {
+            report();
+        }
+
+        if(out != null) {
+            write(board, out);
+        }
+        if(save != null) {
+            BoardFile.save(board, new File(save));
+        }
+    }
+
+    /**
+     * RunMapped
+     * This method runs a board kept on disk rather than on the heap, see
+     * MappedBoard. A new board is filled and stamped as in main(), an existing
+     * board is continued. Cycles are not detected.
+     */
+    private static void runMapped(File file, int rows, int columns, long seed, double density, String load,
+                                  ArrayList<String> patterns, String rule, long generations) throws IOException {
+        File spare = new File(file.getPath() + ".next");
+        boolean resume = file.exists();
+        try(MappedBoard board = resume ? new MappedBoard(file, spare) : MappedBoard.create(file, spare, rows, columns)) {
+            if(!resume && load != null) {
+                String[] parts = load.split("@");
+                String[] position = parts.length == 2 ? parts[1].split(",") : new String[] {"0", "0"};
+                if(parts.length > 2 || position.length != 2) {
+                    usage("load must be FILE[@ROW,COL]: " + load);
+                }
+                String loaded = PatternReader.load(new File(parts[0]), board,
+                                                   Integer.parseInt(position[0]), Integer.parseInt(position[1]));
+                if(rule == null && loaded != null) {
+                    rule = loaded;
+                }
+            } else if(!resume && density > 0) {
+                board.random(seed, density);
+            }
+            if(rule != null) {
+                board.setRule(rule(rule));
+            }
+            for(String pattern : resume ? new ArrayList<String>() : patterns) {
+                int at = pattern.lastIndexOf('@');
+                String[] position = pattern.substring(at + 1).split(",");
+                if(at < 0 || position.length != 2) {
+                    usage("pattern must be BRUSH@ROW,COL: " + pattern);
+                }
+                String brush = pattern.substring(0, at);
+                Pattern stamp = new File(brush).isFile() ? PatternReader.read(new File(brush))
+                                : BrushType.valueOf(brush.toUpperCase(Locale.ROOT)).getPattern();
+                int row = Integer.parseInt(position[0]), column = Integer.parseInt(position[1]);
+                for(int i = 0; i < stamp.getRows() && row + i < board.getRows(); i++) {
+                    for(int j = 0; j < stamp.getColumns() && column + j < board.getColumns(); j++) {
+                        if(stamp.getState(i, j)) {
+                            board.setState(row + i, column + j, true);
+                        }
+                    }
+                }
+            }
+
+            boolean halted = false;
+            long start = System.nanoTime(), first = board.getGeneration();
+            while(board.getGeneration() < generations && !halted) {
+                halted = board.next();
+            }
+            long time = System.nanoTime() - start;
+
+            System.out.printf(Locale.ROOT, "size: %dx%d%n", board.getRows(), board.getColumns());
+            System.out.printf(Locale.ROOT, "rule: %s%n", board.getRule());
+            System.out.printf(Locale.ROOT, "engine: mapped, %s%n", board.getFile());
+            System.out.printf(Locale.ROOT, "generations: %d%n", board.getGeneration());
+            System.out.printf(Locale.ROOT, "population: %d%n", board.getPopulation());
+            System.out.printf(Locale.ROOT, halted ? "halted: generation %d%n" : "running: true%n", board.getGeneration() - 1);
+            System.out.printf(Locale.ROOT, "time: %.3f ms%n", time / 1e6);
+            System.out.printf(Locale.ROOT, "generations/s: %.3f%n", (board.getGeneration() - first) / (time / 1e9));
+            System.out.printf(Locale.ROOT, "nodes/s: %.4g%n",
+                (double) (board.getGeneration() - first) * board.getRows() * board.getColumns() / (time / 1e9));
+        }
+    }
+
+    /**
+     * RunHashLife
+     * This method advances the parameter board to the last generation in a
+     * HashLife universe, see HashLife, as a sum of power of two jumps. The
+     * universe is unbounded, so nodes are not lost at the edges of the board
+     * and the board written out is the window of the universe it covered.
+     * Halting and cycles are not detected.
+     */
+    private static void runHashLife(GameBoard board, TopologyType topology, long generations,
+                                    String out, String save) throws IOException {
+        if(topology != TopologyType.DEAD && topology != TopologyType.UNBOUNDED) {
+            usage("the hashlife universe is unbounded, it can not be joined as a " + topology);
+        }
+        if(!board.getRule().equals(Rule.LIFE)) {
+            usage("the hashlife engine only runs LIFE: " + board.getRule());
+        }
+        HashLife life = new HashLife();
+        life.load(board.getGrid(), 0, 0);
+        long first = board.getGeneration();
+        long start = System.nanoTime();
+        life.advance(Math.max(0, generations - first));
+        long time = System.nanoTime() - start;
+        life.read(board.getGrid(), 0, 0);
+        board.setGeneration(first + life.getGeneration());
+
+        // report
+        System.out.printf(Locale.ROOT, "size: %dx%d%n", board.getRows(), board.getColumns());
+        System.out.printf(Locale.ROOT, "seed: %d%n", board.getSeed());
+        System.out.printf(Locale.ROOT, "engine: hashlife, %d nodes%n", life.getNodeCount());
+        System.out.printf(Locale.ROOT, "rule: %s%n", board.getRule());
+        System.out.printf(Locale.ROOT, "generations: %d%n", board.getGeneration());
+        System.out.printf(Locale.ROOT, "population: %d, %d on the board%n", life.getPopulation(), board.getGrid().population());
+        System.out.printf(Locale.ROOT, "time: %.3f ms%n", time / 1e6);
+        System.out.printf(Locale.ROOT, "generations/s: %.4g%n", life.getGeneration() / (time / 1e9));
+        if(out != null) {
+            write(board, out);
+        }
+        if(save != null) {
+            BoardFile.save(board, new File(save));
+        }
+    }
+
+    /**
+     * Write
+     * This method writes the board as plaintext, one line per row with 'O'
+     * for alive and '.' for dead nodes.
+     *
+     * @param board    the board to write
+     * @param file     the file to write to
+     */
+    private static void write(GameBoard board, String file) throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(Paths.get(file), StandardCharsets.US_ASCII)) {
+            writer.write("!Name: generation " + board.getGeneration());
+            writer.newLine();
+            char[] line = new char[board.getColumns()];
+            for(int i = 0; i < board.getRows(); i++) {
+                for(int j = 0; j < line.length; j++) {
+                    line[j] = board.getState(i, j) ? 'O' : '.';
+                }
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * RunTiles
+     * This method runs a board split into tiles across worker processes, see
+     * TileCoordinator, and prints the cost of exchanging the borders of the tiles.
+     * The board is only gathered into this process to write it out.
+     */
+    private static void runTiles(int rows, int columns, int tileRows, int tileColumns, int port, long seed,
+                                 double density, Rule rule, TopologyType topology, long generations,
+                                 String out) throws IOException {
+        try(TileCoordinator coordinator = new TileCoordinator(rows, columns, tileRows, tileColumns)) {
+            coordinator.setRule(rule);
+            coordinator.setTopology(topology);
+            int bound = coordinator.bind(port);
+            if(port == 0) {
+                coordinator.launch();
+            } else {
+                System.err.printf(Locale.ROOT, "waiting for %d workers, java TileWorker HOST:%d%n",
+                    coordinator.getWorkers(), bound);
+            }
+            coordinator.start(seed, density);
+
+            // run
+            boolean halted = false;
+            long start = System.nanoTime();
+            while(coordinator.getGeneration() < generations && !halted) {
+                halted = coordinator.next();
+            }
+            long time = System.nanoTime() - start;
+
+            // report
+            long run = Math.max(1, coordinator.getGeneration());
+            System.out.printf(Locale.ROOT, "size: %dx%d%n", rows, columns);
+            System.out.printf(Locale.ROOT, "seed: %d%n", seed);
+            System.out.printf(Locale.ROOT, "topology: %s%n", topology);
+            System.out.printf(Locale.ROOT, "rule: %s%n", rule);
+            System.out.printf(Locale.ROOT, "tiles: %dx%d, %d workers%n", tileRows, tileColumns, coordinator.getWorkers());
+            System.out.printf(Locale.ROOT, "generations: %d%n", coordinator.getGeneration());
+            System.out.printf(Locale.ROOT, "population: %d%n", coordinator.getPopulation());
+            System.out.printf(Locale.ROOT, halted ? "halted: generation %d%n" : "running: true%n", coordinator.getGeneration() - 1);
+            System.out.printf(Locale.ROOT, "time: %.3f ms%n", time / 1e6);
+            System.out.printf(Locale.ROOT, "generations/s: %.1f%n", coordinator.getGeneration() / (time / 1e9));
+            System.out.printf(Locale.ROOT, "network: %d halo bytes/generation, %d control bytes/generation%n",
+                coordinator.getHaloBytes() / run, coordinator.getControlBytes() / run);
+            System.out.printf(Locale.ROOT, "exchange: %.3f ms/generation, step: %.3f ms/generation, slowest worker%n",
+                coordinator.getExchangeTime() / 1e6 / run, coordinator.getStepTime() / 1e6 / run);
+            if(out != null) {
+                GameBoard board = new GameBoard(coordinator.gather());
+                board.setGeneration(coordinator.getGeneration());
+                write(board, out);
+            }
+        }
+    }
+
+    /**
+     * RunSoups
+     * This method runs a census of random soups and prints the longest lived,
+     * each can be run again on its own with --seed.
+     */
+    private static void runSoups(int rows, int columns, long seed, double density, Rule rule, TopologyType topology,
+                                 long generations, long soups, int threads, int top) {
+        SoupSearch search = new SoupSearch(rows, columns);
+        search.setDensity(density);
+        search.setRule(rule);
+        search.setTopology(topology);
+        search.setGenerations(generations);
+        search.run(seed, soups, threads, top);
+
+        // report
+        double seconds = search.getTime() / 1e9;
+        System.out.printf(Locale.ROOT, "size: %dx%d%n", rows, columns);
+        System.out.printf(Locale.ROOT, "seed: %d%n", seed);
+        System.out.printf(Locale.ROOT, "topology: %s%n", topology);
+        System.out.printf(Locale.ROOT, "rule: %s%n", rule);
+        System.out.printf(Locale.ROOT, "threads: %d%n", threads);
+        System.out.printf(Locale.ROOT, "soups: %d, halted %d, cycled %d, running %d at generation %d%n",
+            soups, search.getHalted(), search.getCycled(), search.getRunning(), generations);
+        System.out.printf(Locale.ROOT, "time: %.3f ms%n", search.getTime() / 1e6);
+        System.out.printf(Locale.ROOT, "soups/s: %.1f%n", soups / seconds);
+        System.out.printf(Locale.ROOT, "generations/s: %.1f%n", search.getStepped() / seconds);
+        for(int n = 0; n < search.getTop().size(); n++) {
+            System.out.printf(Locale.ROOT, "top %d: %s%n", n + 1, search.getTop().get(n));
+        }
+        if(!search.getTop().isEmpty()) {
+            System.out.printf(Locale.ROOT, "replay: java Batch --size %dx%d --density %s --topology %s --rule %s --seed %d%n",
+                rows, columns, density, topology, rule, search.getTop().get(0).getSeed());
+        }
+    }
+
+    /**
+     * Rule
+     * This method returns the parameter RuleType, or the rule of the parameter
+     * rulestring if it is not the name of one.
+     */
+    private static Rule rule(String value) {
+        for(RuleType type : RuleType.values()) {
+            if(type.name().equalsIgnoreCase(value)) {
+                return type.getRule();
+            }
+        }
+        try {
+            return Rule.parse(value);
+        } catch(IllegalArgumentException e) {
+            usage(e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Count
+     * This method parses a number of generations, either a number or a power
+     * of two written 2^K.
+     */
+    private static long count(String value) {
+        if(value.startsWith("2^")) {
+            int k = Integer.parseInt(value.substring(2));
+            if(k < 0 || k > 62) {
+                usage("generations must be between 2^0 and 2^62: " + value);
+            }
+            return 1L << k;
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Report
+     * This method prints the percentiles of the metrics recorded by the run.
+     */
+    private static void report() {
+        Metrics metrics = Metrics.getMetrics();
+        System.out.printf(Locale.ROOT, "step: p50 %.3f ms, p99 %.3f ms, over the last %d generations%n",
+            metrics.percentile(Metrics.STEP, 50) / 1e6, metrics.percentile(Metrics.STEP, 99) / 1e6,
+            Math.min(1024, metrics.count(Metrics.STEP)));
+        System.out.printf(Locale.ROOT, "births: p50 %d, p99 %d%n",
+            metrics.percentile(Metrics.BIRTHS, 50), metrics.percentile(Metrics.BIRTHS, 99));
+        System.out.printf(Locale.ROOT, "deaths: p50 %d, p99 %d%n",
+            metrics.percentile(Metrics.DEATHS, 50), metrics.percentile(Metrics.DEATHS, 99));
+        System.out.printf(Locale.ROOT, "allocated: p50 %d, p99 %d bytes/generation%n",
+            metrics.percentile(Metrics.ALLOCATED, 50), metrics.percentile(Metrics.ALLOCATED, 99));
+    }
+
+    /**
+     * Usage
+     * This method prints the parameter error and exits.
+     */
+    private static void usage(String error) {
+        System.err.println("error: " + error);
+        System.err.println("usage: java Batch [--size RxC] [--seed N] [--density D] [--pattern BRUSH@ROW,COL]...");
+        System.err.println("                  [--generations N] [--topology DEAD|TORUS|KLEIN|UNBOUNDED] [--rule RULE] [--threads N]");
+        System.err.println("                  [--engine SCALAR|VECTOR|ACTIVE|HASHLIFE] [--out FILE] [--mapped FILE] [--metrics on|off]");
+        System.err.println("                  [--soups N] [--top N] [--tiles RxC] [--port P]");
+        System.err.println("                  [--load FILE[@ROW,COL]] [--resume FILE] [--save FILE] [--checkpoint N]");
+        System.exit(2);
+    }
+}
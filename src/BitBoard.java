@@ -0,0 +1,793 @@
+/**
+ * @class BitBoard
+ * @description This class defines a bit-packed gameboard. Each row of the board
+ * is stored as a run of 64 bit words, one bit per node, and the next iteration
+ * is computed 64 nodes at a time using bitwise adder logic. The classic rule has
+ * its own adder, other life-like rules pick the neighbour counts they need from
+ * the sum. Generations rules keep the dying nodes and their states in extra bit
+ * planes that are updated a word at a time alongside the alive nodes.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+public class BitBoard implements Grid {
+
+    // Fields
+    private long[] cells, buffer;    // current and next iteration, swapped after each step
+    private int rows, columns, words;
+    private long lastMask;           // valid bits of the last word in each row
+    private long births, deaths;     // changes made by the last iteration
+    private long decays;             // dying nodes changed by the last iteration
+    private long hash;               // zobrist hash of the nodes that are not dead
+    private long[] counts = new long[4];
+    private Rule rule = Rule.LIFE;
+    private boolean life = true;     // the rule is B3/S23, stepped by the specialised adder
+    private int birthMask, survivalMask;
+    private long[] dying;            // nodes in a dying state, null for life-like rules
+    private long[][] ages;           // bit planes of the state - 2 of each dying node
+    private int expiry;              // the age of the last dying state
+    private long[] zeros, mirror;    // dead halo row, mirrored first and last rows
+    private TopologyType topology = TopologyType.DEAD;
+
+    /**
+     * Constructor
+     * Generates an empty bit-packed board.
+     */
+    public BitBoard(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        words = (columns + 63) >>> 6;
+        lastMask = columns % 64 == 0 ? -1L : (1L << (columns % 64)) - 1;
+        cells = new long[rows * words];
+        buffer = new long[rows * words];
+        zeros = new long[words];
+        mirror = new long[2 * words];
+        setRule(Rule.LIFE);
+    }
+
+    /**
+     * Create
+     * This method returns a bit-packed board stepped on the parameter number of
+     * threads. When vector is true and the jdk.incubator.vector module has been
+     * added, the board is a VectorBitBoard, otherwise the scalar engine is used.
+     *
+     * @param rows        the number of rows
+     * @param columns     the number of columns
+     * @param threads     the number of threads, at least 1
+     * @param vector      true to step the board with the vector API when it is available
+     * @return BitBoard   the empty board, see getEngine().
+     */
+    public static BitBoard create(int rows, int columns, int threads, boolean vector) {
+        if(vector && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (BitBoard) Class.forName("VectorBitBoard")
+                    .getConstructor(int.class, int.class, int.class).newInstance(rows, columns, threads);
+            } catch(ReflectiveOperationException | LinkageError e) {
+                // not compiled in, fall back to the scalar engine
+            }
+        }
+        return threads > 1 ? new ParallelBitBoard(rows, columns, threads) : new BitBoard(rows, columns);
+    }
+
+    // Accessors/Mutators
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public int getWords() { return words; }
+    public long getWord(int index) { return cells[index]; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getDecays() { return decays; }
+    public Rule getRule() { return rule; }
+    public long getHash() { return hash; }
+    public TopologyType getTopology() { return topology; }
+    public String getEngine() { return "scalar"; }
+    public void setTopology(TopologyType topology) {
+        if(topology == TopologyType.UNBOUNDED) {
+            throw new IllegalArgumentException("a bit-packed board has edges, see UnboundedGrid");
+        }
+        this.topology = topology;
+    }
+    public boolean getState(int i, int j) {
+        return (cells[i * words + (j >>> 6)] & (1L << j)) != 0;
+    }
+    public int getValue(int i, int j) {
+        int index = i * words + (j >>> 6);
+        if(getState(i, j) || dying == null || (dying[index] & (1L << j)) == 0) {
+            return getState(i, j) ? 1 : 0;
+        }
+        return 2 + age(index, j & 63);
+    }
+    public void setValue(int i, int j, int value) {
+        if(value < 0 || value >= rule.getStates()) {
+            throw new IllegalArgumentException("no state " + value + " in rule " + rule);
+        }
+        setState(i, j, value == 1);
+        if(value >= 2) {
+            int index = i * words + (j >>> 6);
+            dying[index] |= 1L << j;
+            for(int p = 0; p < ages.length; p++) {
+                ages[p][index] |= (long) (((value - 2) >>> p) & 1) << j;
+            }
+            hash ^= Grid.key((long) i * columns + j, value);
+        }
+    }
+    public void setState(int i, int j, boolean state) {
+        cure(i * words + (j >>> 6), (long) i * columns + (j & ~63), 1L << j);
+        if(getState(i, j) != state) {
+            hash ^= Grid.key((long) i * columns + j);
+        }
+        if(state) {
+            cells[i * words + (j >>> 6)] |= 1L << j;
+        } else {
+            cells[i * words + (j >>> 6)] &= ~(1L << j);
+        }
+    }
+
+    /**
+     * SetRun
+     * This method sets a run of nodes along row i, from column j to j + length - 1,
+     * masking whole words at a time. Only the nodes that change update the hash.
+     */
+    @Override
+    public void setRun(int i, int j, int length, boolean state) {
+        for(int end = j + length; j < end; ) {
+            int to = Math.min(end, (j & ~63) + 64);
+            long mask = (to - j == 64 ? -1L : (1L << (to - j)) - 1) << j;
+            int index = i * words + (j >>> 6);
+            cure(index, (long) i * columns + (j & ~63), mask);
+            long flips = (state ? ~cells[index] : cells[index]) & mask;
+            hash ^= keys((long) i * columns + (j & ~63), flips);
+            cells[index] ^= flips;
+            j = to;
+        }
+    }
+
+    /**
+     * GetBits
+     * This method returns up to 64 nodes along row i from column j, joined from
+     * the two words they span.
+     */
+    @Override
+    public long getBits(int i, int j) {
+        int index = i * words + (j >>> 6), shift = j & 63;
+        long bits = cells[index] >>> shift;
+        if(shift != 0 && (j >>> 6) + 1 < words) {
+            bits |= cells[index + 1] << (64 - shift);
+        }
+        return bits;
+    }
+
+    /**
+     * SetBits
+     * This method sets the masked nodes along row i from column j, split across
+     * the two words they span. Only the nodes that change update the hash.
+     */
+    @Override
+    public void setBits(int i, int j, long mask, boolean state) {
+        int index = i * words + (j >>> 6), shift = j & 63;
+        long base = (long) i * columns + (j & ~63);
+        cure(index, base, mask << shift);
+        long flips = (state ? ~cells[index] : cells[index]) & (mask << shift);
+        hash ^= keys(base, flips);
+        cells[index] ^= flips;
+        if(shift != 0 && (mask >>> (64 - shift)) != 0) {
+            cure(index + 1, base + 64, mask >>> (64 - shift));
+            flips = (state ? ~cells[index + 1] : cells[index + 1]) & (mask >>> (64 - shift));
+            hash ^= keys(base + 64, flips);
+            cells[index + 1] ^= flips;
+        }
+    }
+
+    /**
+     * CopyCells
+     * This method copies the packed nodes of the board, one row of words after
+     * another, into the parameter array.
+     *
+     * @param dest    the array to copy into, at least rows * words long
+     */
+    public void copyCells(long[] dest) {
+        System.arraycopy(cells, 0, dest, 0, cells.length);
+    }
+
+    /**
+     * GetPlanes
+     * This method returns the number of bit planes of the board, the alive nodes
+     * followed under a generations rule by the dying nodes and the bits of their
+     * states.
+     *
+     * @return int    the number of planes.
+     */
+    public int getPlanes() {
+        return dying == null ? 1 : 2 + ages.length;
+    }
+
+    /**
+     * GetWord
+     * This method returns a word of the parameter plane, see getPlanes().
+     *
+     * @param plane     the plane
+     * @param index     the index of the word
+     * @return long     the word.
+     */
+    public long getWord(int plane, int index) {
+        return plane(plane)[index];
+    }
+
+    /**
+     * CopyCells
+     * This method copies the words of the parameter plane, starting at the word
+     * at the parameter index, into the parameter buffer until it is full.
+     *
+     * @param plane   the plane to copy, see getPlanes()
+     * @param from    the index of the first word to copy
+     * @param dest    the buffer to copy into
+     */
+    public void copyCells(int plane, int from, LongBuffer dest) {
+        long[] words = plane(plane);
+        dest.put(words, from, Math.min(dest.remaining(), words.length - from));
+    }
+
+    /**
+     * LoadCells
+     * This method replaces the words of the parameter plane, starting at the word
+     * at the parameter index, with the remaining words of the parameter buffer.
+     * The hash is not updated, call rehash() once every plane is loaded.
+     *
+     * @param plane   the plane to replace, see getPlanes()
+     * @param from    the index of the first word to replace
+     * @param src     the buffer to copy from
+     */
+    public void loadCells(int plane, int from, LongBuffer src) {
+        long[] cells = plane(plane);
+        int length = Math.min(src.remaining(), cells.length - from);
+        src.get(cells, from, length);
+
+        // nodes past the last column must stay dead
+        for(int index = from + words - 1 - from % words; lastMask != -1L && index < from + length; index += words) {
+            cells[index] &= lastMask;
+        }
+    }
+
+    /**
+     * Rehash
+     * This method recomputes the hash from every node of the board that is not
+     * dead. Dying nodes that are also alive are made alive.
+     *
+     * @return long    the hash of the board.
+     */
+    public long rehash() {
+        hash = 0;
+        for(int i = 0; i < rows; i++) {
+            for(int k = 0; k < words; k++) {
+                int index = i * words + k;
+                hash ^= keys((long) i * columns + (k << 6), cells[index]);
+                if(dying != null) {
+                    dying[index] &= ~cells[index];
+                    for(long[] plane : ages) {
+                        plane[index] &= dying[index];
+                    }
+                    hash ^= dyingKeys(index, (long) i * columns + (k << 6), dying[index]);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Population
+     * This method counts the number of alive nodes on the board.
+     *
+     * @return long    the number of alive nodes.
+     */
+    @Override
+    public long population() {
+        long sum = 0;
+        for(int k = 0; k < cells.length; k++) {
+            sum += Long.bitCount(cells[k]);
+        }
+        return sum;
+    }
+
+    /**
+     * Clear
+     * This method clears the board, sets all nodes to dead.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(cells, 0);
+        if(dying != null) {
+            Arrays.fill(dying, 0);
+            for(long[] plane : ages) {
+                Arrays.fill(plane, 0);
+            }
+        }
+        hash = 0;
+    }
+
+    /**
+     * SetRule
+     * This method sets the rule of the game. Life-like rules other than B3/S23
+     * are stepped by matching the neighbour counts of the rule, generations rules
+     * add the planes of the dying nodes. Dying nodes in states the new rule does
+     * not have are made dead.
+     *
+     * @param rule    the rule of the game
+     */
+    @Override
+    public void setRule(Rule rule) {
+        long[] oldDying = dying;
+        long[][] oldAges = ages;
+        this.rule = rule;
+        life = rule.equals(Rule.LIFE);
+        birthMask = rule.getBirths();
+        survivalMask = rule.getSurvivals();
+        expiry = rule.getStates() - 3;
+        dying = null;
+        ages = null;
+        if(rule.getStates() > 2) {
+            dying = new long[cells.length];
+            ages = new long[32 - Integer.numberOfLeadingZeros(Math.max(expiry, 0))][cells.length];
+        }
+
+        // copy the dying nodes that are still in a state of the rule
+        for(int index = 0; oldDying != null && dying != null && index < cells.length; index++) {
+            for(long bits = oldDying[index]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits), age = 0;
+                for(int p = 0; p < oldAges.length; p++) {
+                    age |= (int) ((oldAges[p][index] >>> bit) & 1) << p;
+                }
+                if(age <= expiry) {
+                    dying[index] |= 1L << bit;
+                    for(int p = 0; p < ages.length; p++) {
+                        ages[p][index] |= (long) ((age >>> p) & 1) << bit;
+                    }
+                }
+            }
+        }
+        rehash();
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+        counts[0] = 0;
+        counts[1] = 0;
+        counts[2] = 0;
+        counts[3] = 0;
+        prepare();
+        evolveRows(0, rows, counts);
+        swap(counts[0], counts[1], counts[2], counts[3]);
+        return births + deaths + decays == 0;
+    }
+
+    /**
+     * Prepare
+     * This method builds the halo rows the topology needs before any row of
+     * the next iteration is evolved.
+     */
+    protected void prepare() {
+        if(topology == TopologyType.KLEIN) {
+            reflect(0, mirror, 0);
+            reflect((rows - 1) * words, mirror, words);
+        }
+    }
+
+    /**
+     * Swap
+     * This method swaps the buffers once every row of the next iteration has
+     * been written, the old iteration is overwritten next step.
+     *
+     * @param births    the number of nodes born in the iteration
+     * @param deaths    the number of nodes that died in the iteration
+     * @param changes   the xor of the keys of every node that changed
+     * @param decays    the number of dying nodes that changed in the iteration
+     */
+    protected void swap(long births, long deaths, long changes, long decays) {
+        long[] tmp = cells;
+        cells = buffer;
+        buffer = tmp;
+        this.births = births;
+        this.deaths = deaths;
+        this.decays = decays;
+        hash ^= changes;
+    }
+
+    /**
+     * EvolveRows
+     * This method writes the next iteration of the rows [from, to) into the
+     * buffer. Only the current iteration is read so disjoint row ranges can be
+     * evolved at the same time. The rows above the first row and below the last
+     * row are chosen by the topology, dead edges read a row of zeros.
+     *
+     * @param from      the first row to evolve
+     * @param to        the row after the last row to evolve
+     * @param counts    the births and deaths are added to counts[0] and counts[1], the
+     *                  keys of the changed nodes are xored into counts[2] and the
+     *                  number of dying nodes that changed is added to counts[3]
+     */
+    protected void evolveRows(int from, int to, long[] counts) {
+        int last = (rows - 1) * words;
+        for(int i = from; i < to; i++) {
+            int row = i * words;
+            switch(topology) {
+                case DEAD: {
+                    evolveRow(i > 0 ? cells : zeros, i > 0 ? row - words : 0,
+                              row,
+                              i < rows - 1 ? cells : zeros, i < rows - 1 ? row + words : 0, counts);
+                    break;
+                } case TORUS: {
+                    evolveWrappedRow(cells, i > 0 ? row - words : last,
+                                     row,
+                                     cells, i < rows - 1 ? row + words : 0, counts);
+                    break;
+                } case KLEIN: {
+                    evolveWrappedRow(i > 0 ? cells : mirror, i > 0 ? row - words : words,
+                                     row,
+                                     i < rows - 1 ? cells : mirror, i < rows - 1 ? row + words : 0, counts);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * EvolveRow
+     * This method evolves a single row, nodes left and right of the board are dead.
+     *
+     * @param above     the array holding the row above, from index aOff
+     * @param row       the index of the row to evolve
+     * @param below     the array holding the row below, from index bOff
+     * @param counts    the births and deaths are added to counts[0] and counts[1], the
+     *                  keys of the changed nodes are xored into counts[2] and the
+     *                  number of dying nodes that changed is added to counts[3]
+     */
+    private void evolveRow(long[] above, int aOff, int row, long[] below, int bOff, long[] counts) {
+        int last = words - 1;
+        if(last == 0) {
+            buffer[row] = step(0, above[aOff], 0, 0, cells[row], 0, 0, below[bOff], 0);
+        } else {
+            buffer[row] = step(0, above[aOff], above[aOff + 1],
+                               0, cells[row], cells[row + 1],
+                               0, below[bOff], below[bOff + 1]);
+            evolveSpan(above, aOff, cells, row, below, bOff, buffer, 1, last);
+            buffer[row + last] = step(above[aOff + last - 1], above[aOff + last], 0,
+                                      cells[row + last - 1], cells[row + last], 0,
+                                      below[bOff + last - 1], below[bOff + last], 0);
+        }
+        finishRow(row, counts);
+    }
+
+    /**
+     * EvolveWrappedRow
+     * This method evolves a single row, the left and right edges of the board
+     * are joined. The last node of the row is placed before the first word and
+     * the first node of the row after the last node.
+     *
+     * @param above     the array holding the row above, from index aOff
+     * @param row       the index of the row to evolve
+     * @param below     the array holding the row below, from index bOff
+     * @param counts    the births and deaths are added to counts[0] and counts[1], the
+     *                  keys of the changed nodes are xored into counts[2] and the
+     *                  number of dying nodes that changed is added to counts[3]
+     */
+    private void evolveWrappedRow(long[] above, int aOff, int row, long[] below, int bOff, long[] counts) {
+        int last = words - 1;
+        int end = (columns - 1) & 63;    // bit of the last node in the last word
+
+        // the last node of each row, aligned west of the first word
+        long aWest = (above[aOff + last] >>> end) << 63;
+        long cWest = (cells[row + last] >>> end) << 63;
+        long bWest = (below[bOff + last] >>> end) << 63;
+
+        // the first node of each row, aligned east of the last node, inside the
+        // last word when it is not full
+        long aLast = above[aOff + last], cLast = cells[row + last], bLast = below[bOff + last];
+        long aEast = 0, cEast = 0, bEast = 0;
+        if(end == 63) {
+            aEast = above[aOff] & 1L; cEast = cells[row] & 1L; bEast = below[bOff] & 1L;
+        } else {
+            aLast |= (above[aOff] & 1L) << (end + 1);
+            cLast |= (cells[row] & 1L) << (end + 1);
+            bLast |= (below[bOff] & 1L) << (end + 1);
+        }
+
+        if(last == 0) {
+            buffer[row] = step(aWest, aLast, aEast, cWest, cLast, cEast, bWest, bLast, bEast);
+        } else {
+            buffer[row] = step(aWest, above[aOff], above[aOff + 1],
+                               cWest, cells[row], cells[row + 1],
+                               bWest, below[bOff], below[bOff + 1]);
+            evolveSpan(above, aOff, cells, row, below, bOff, buffer, 1, last);
+            buffer[row + last] = step(above[aOff + last - 1], aLast, aEast,
+                                      cells[row + last - 1], cLast, cEast,
+                                      below[bOff + last - 1], bLast, bEast);
+        }
+        finishRow(row, counts);
+    }
+
+    /**
+     * EvolveSpan
+     * This method writes the next iteration of the words [from, to) of a row
+     * under the life-like part of the rule, the words either side of the span
+     * are read but not written so the span can not include the first or last
+     * word of the row. Engines that step many words at once override this
+     * method, the edges of the row are always stepped here.
+     *
+     * @param above      the array holding the row above, from index aOff
+     * @param current    the array holding the row, from index row
+     * @param below      the array holding the row below, from index bOff
+     * @param next       the array to write the next iteration of the row, from index row
+     * @param from       the first word to evolve, at least 1
+     * @param to         the word after the last word to evolve, at most words - 1
+     */
+    protected void evolveSpan(long[] above, int aOff, long[] current, int row, long[] below, int bOff,
+                              long[] next, int from, int to) {
+        // sliding window of the previous, current and next word of each row
+        long aPrev = above[aOff + from - 1], cPrev = current[row + from - 1], bPrev = below[bOff + from - 1];
+        long aCur = above[aOff + from], cCur = current[row + from], bCur = below[bOff + from];
+        for(int k = from; k < to; k++) {
+            long aNext = above[aOff + k + 1], cNext = current[row + k + 1], bNext = below[bOff + k + 1];
+            next[row + k] = step(aPrev, aCur, aNext, cPrev, cCur, cNext, bPrev, bCur, bNext);
+            aPrev = aCur; cPrev = cCur; bPrev = bCur;
+            aCur = aNext; cCur = cNext; bCur = bNext;
+        }
+    }
+
+    /**
+     * FinishRow
+     * This method completes a row of the next iteration once every word has been
+     * stepped, the nodes past the last column are cleared, generations rules
+     * update the dying nodes, and the changed nodes are counted and hashed.
+     */
+    private void finishRow(int row, long[] counts) {
+        long born = 0, died = 0, changes = 0;
+        long base = (long) (row / words) * columns;    // index of the first node of the row
+        buffer[row + words - 1] &= lastMask;
+        for(int k = 0; k < words; k++) {
+            long state = cells[row + k], next = buffer[row + k];
+            if(dying != null) {
+                next = decay(row + k, base + (k << 6), state, next, counts);
+                buffer[row + k] = next;
+            }
+            if(next != state) {
+                born += Long.bitCount(next & ~state);
+                died += Long.bitCount(state & ~next);
+                changes ^= keys(base + (k << 6), next ^ state);
+            }
+        }
+
+        counts[0] += born;
+        counts[1] += died;
+        counts[2] ^= changes;
+    }
+
+    /**
+     * Step
+     * This method computes the next state of 64 nodes under the life-like part
+     * of the rule, see evolve().
+     */
+    private long step(long aPrev, long aCur, long aNext,
+                      long cPrev, long cCur, long cNext,
+                      long bPrev, long bCur, long bNext) {
+        return life ? evolve(aPrev, aCur, aNext, cPrev, cCur, cNext, bPrev, bCur, bNext)
+                    : evolve(birthMask, survivalMask, aPrev, aCur, aNext, cPrev, cCur, cNext, bPrev, bCur, bNext);
+    }
+
+    /**
+     * Decay
+     * This method applies a generations rule to a word of nodes. Dying nodes can
+     * not be born, alive nodes that do not survive start dying in state 2, and
+     * dying nodes move to the next state, the nodes in the last state die. The
+     * planes of the dying nodes are updated in place, only this word is read.
+     *
+     * @param index     the index of the word
+     * @param base      the index of the node at bit 0 of the word
+     * @param state     the alive nodes of the word
+     * @param next      the alive nodes of the next iteration under the life-like part of the rule
+     * @param counts    the keys of the changed nodes are xored into counts[2] and the
+     *                  number of dying nodes that changed is added to counts[3]
+     * @return long     the alive nodes of the next iteration.
+     */
+    private long decay(int index, long base, long state, long next, long[] counts) {
+        long old = dying[index];
+        next &= state | ~old;
+        long start = state & ~next;
+        if((old | start) == 0) {
+            return next;
+        }
+
+        // the dying nodes in the last state die, the others age by one
+        long expired = old;
+        for(int p = 0; p < ages.length; p++) {
+            expired &= ((expiry >>> p) & 1) != 0 ? ages[p][index] : ~ages[p][index];
+        }
+        long kept = old & ~expired;
+        long changes = dyingKeys(index, base, old);
+        long carry = kept;
+        for(int p = 0; p < ages.length; p++) {
+            long age = ages[p][index];
+            ages[p][index] = (age ^ carry) & kept;
+            carry &= age;
+        }
+        dying[index] = kept | start;
+
+        counts[2] ^= changes ^ dyingKeys(index, base, kept | start);
+        counts[3] += Long.bitCount(old | start);
+        return next;
+    }
+
+    /**
+     * Cure
+     * This method makes the masked dying nodes of a word dead, before they are
+     * set to a new state.
+     */
+    private void cure(int index, long base, long mask) {
+        if(dying == null || (dying[index] & mask) == 0) {
+            return;
+        }
+        hash ^= dyingKeys(index, base, dying[index] & mask);
+        dying[index] &= ~mask;
+        for(long[] plane : ages) {
+            plane[index] &= ~mask;
+        }
+    }
+
+    /**
+     * Age
+     * This method returns the number of iterations a dying node has been dying,
+     * its state less 2, from the bit planes of its word.
+     */
+    private int age(int index, int bit) {
+        int age = 0;
+        for(int p = 0; p < ages.length; p++) {
+            age |= (int) ((ages[p][index] >>> bit) & 1) << p;
+        }
+        return age;
+    }
+
+    /**
+     * DyingKeys
+     * This method xors together the zobrist keys of the dying nodes of a word
+     * in their current states.
+     */
+    private long dyingKeys(int index, long base, long bits) {
+        long sum = 0;
+        for(; bits != 0; bits &= bits - 1) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            sum ^= Grid.key(base + bit, 2 + age(index, bit));
+        }
+        return sum;
+    }
+
+    /**
+     * Plane
+     * This method returns the words of the parameter plane, see getPlanes().
+     */
+    private long[] plane(int plane) {
+        return plane == 0 ? cells : plane == 1 ? dying : ages[plane - 2];
+    }
+
+    /**
+     * Keys
+     * This method xors together the zobrist keys of the set bits of a word.
+     *
+     * @param index    the index of the node at bit 0 of the word
+     * @param bits     the word
+     */
+    private static long keys(long index, long bits) {
+        long sum = 0;
+        for(; bits != 0; bits &= bits - 1) {
+            sum ^= Grid.key(index + Long.numberOfTrailingZeros(bits));
+        }
+        return sum;
+    }
+
+    /**
+     * Reflect
+     * This method writes the row starting at the parameter index into dest,
+     * mirrored so that node j is written to node columns - 1 - j.
+     */
+    private void reflect(int row, long[] dest, int destOff) {
+        int shift = words * 64 - columns;
+        for(int k = 0; k < words; k++) {
+            long low = Long.reverse(cells[row + words - 1 - k]);
+            long high = k + 1 < words ? Long.reverse(cells[row + words - 2 - k]) : 0;
+            dest[destOff + k] = shift == 0 ? low : (low >>> shift) | (high << (64 - shift));
+        }
+    }
+
+    /**
+     * Evolve
+     * This method computes the next state of 64 nodes. The eight neighbours of
+     * each node are summed in parallel with a tree of bitwise full adders into
+     * a 3 bit count (s2 s1 s0), a sum of 8 wraps around to 0 which is still a death.
+     *
+     * @param aPrev, aCur, aNext    the words before, at and after the node word in the row above
+     * @param cPrev, cCur, cNext    the words before, at and after the node word
+     * @param bPrev, bCur, bNext    the words before, at and after the node word in the row below
+     * @return long                 the next state of the 64 nodes in cCur
+     */
+    static long evolve(long aPrev, long aCur, long aNext,
+                       long cPrev, long cCur, long cNext,
+                       long bPrev, long bCur, long bNext) {
+
+        // align the west and east neighbours of each node with the node itself
+        long aW = (aCur << 1) | (aPrev >>> 63), aE = (aCur >>> 1) | (aNext << 63);
+        long cW = (cCur << 1) | (cPrev >>> 63), cE = (cCur >>> 1) | (cNext << 63);
+        long bW = (bCur << 1) | (bPrev >>> 63), bE = (bCur >>> 1) | (bNext << 63);
+
+        // row above and row below, full adders
+        long aSum = aW ^ aCur ^ aE, aCarry = (aW & aCur) | (aE & (aW ^ aCur));
+        long bSum = bW ^ bCur ^ bE, bCarry = (bW & bCur) | (bE & (bW ^ bCur));
+
+        // current row, half adder
+        long cSum = cW ^ cE, cCarry = cW & cE;
+
+        // ones
+        long s0 = aSum ^ bSum ^ cSum;
+        long onesCarry = (aSum & bSum) | (cSum & (aSum ^ bSum));
+
+        // twos
+        long t = aCarry ^ bCarry ^ cCarry;
+        long fours = (aCarry & bCarry) | (cCarry & (aCarry ^ bCarry));
+        long s1 = t ^ onesCarry;
+        long s2 = fours ^ (t & onesCarry);
+
+        // alive with 2 or 3 neighbours survives, dead with 3 neighbours is born
+        return ~s2 & s1 & (s0 | cCur);
+    }
+
+    /**
+     * Evolve
+     * This method computes the next state of 64 nodes under a life-like rule. The
+     * neighbours are summed as above into a 4 bit count, then each node is matched
+     * against the counts of the rule that give birth when dead or survival when
+     * alive. Only the counts of the rule are matched, with no branch on the nodes.
+     *
+     * @param births        bit n is set if n neighbours give birth, see Rule
+     * @param survivals     bit n is set if n neighbours give survival, see Rule
+     * @param aPrev, aCur, aNext    the words before, at and after the node word in the row above
+     * @param cPrev, cCur, cNext    the words before, at and after the node word
+     * @param bPrev, bCur, bNext    the words before, at and after the node word in the row below
+     * @return long                 the next state of the 64 nodes in cCur
+     */
+    static long evolve(int births, int survivals,
+                       long aPrev, long aCur, long aNext,
+                       long cPrev, long cCur, long cNext,
+                       long bPrev, long bCur, long bNext) {
+
+        long aW = (aCur << 1) | (aPrev >>> 63), aE = (aCur >>> 1) | (aNext << 63);
+        long cW = (cCur << 1) | (cPrev >>> 63), cE = (cCur >>> 1) | (cNext << 63);
+        long bW = (bCur << 1) | (bPrev >>> 63), bE = (bCur >>> 1) | (bNext << 63);
+
+        long aSum = aW ^ aCur ^ aE, aCarry = (aW & aCur) | (aE & (aW ^ aCur));
+        long bSum = bW ^ bCur ^ bE, bCarry = (bW & bCur) | (bE & (bW ^ bCur));
+        long cSum = cW ^ cE, cCarry = cW & cE;
+
+        long s0 = aSum ^ bSum ^ cSum;
+        long onesCarry = (aSum & bSum) | (cSum & (aSum ^ bSum));
+        long t = aCarry ^ bCarry ^ cCarry;
+        long fours = (aCarry & bCarry) | (cCarry & (aCarry ^ bCarry));
+        long s1 = t ^ onesCarry;
+        long s2 = fours ^ (t & onesCarry);
+        long s3 = fours & t & onesCarry;
+
+        long next = 0;
+        for(int counts = births | survivals; counts != 0; counts &= counts - 1) {
+            int n = Integer.numberOfTrailingZeros(counts);
+            long match = ((n & 1) != 0 ? s0 : ~s0) & ((n & 2) != 0 ? s1 : ~s1)
+                       & ((n & 4) != 0 ? s2 : ~s2) & ((n & 8) != 0 ? s3 : ~s3);
+            long born = -(long) ((births >>> n) & 1), survives = -(long) ((survivals >>> n) & 1);
+            next |= match & ((born & ~cCur) | (survives & cCur));
+        }
+        return next;
+    }
+}
@@ -0,0 +1,474 @@
+/**
+ * @class BoardFile
+ * @description This class saves and restores boards in a compact binary format,
+ * so long runs can be checkpointed and resumed. The file is written and read
+ * through memory mapped buffers of the file, a chunk at a time. A board is saved
+ * to a new file beside the one it replaces, forced to the disk, then renamed over
+ * it, so a file that is still mapped is never resized and a save that fails part
+ * way leaves the old file as it was.
+ *
+ * Layout, little endian, every field aligned to its size:
+ *   int    magic, "LIFE"
+ *   short  version of the format
+ *   short  length of the header in bytes, a multiple of 8
+ *   int    rows
+ *   int    columns
+ *   long   generation
+ *   long   seed of the random fill, 0 if none
+ *   long   zobrist hash of the board, checked on load
+ *   byte   topology, see TopologyType
+ *   byte   encoding of the nodes, PACKED or RUNS
+ *   short  length of the rulestring, followed by its ascii bytes
+ * The nodes follow the header as words of 64 nodes, one row of words after
+ * another as in a BitBoard. The alive nodes come first, generations rules add
+ * the planes of the dying nodes after them, see BitBoard.getPlanes(). PACKED
+ * stores every word, RUNS stores each run of non-zero words as one word, the
+ * number of zero words skipped in the high half and the number of words in the
+ * run in the low half, followed by the run.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+public class BoardFile {
+
+    // Fields
+    public static final int MAGIC = 0x4546494C;    // "LIFE" in little endian
+    public static final int VERSION = 1;
+    public static final byte PACKED = 0, RUNS = 1;
+    private static final long CHUNK = 1L << 30;    // bytes mapped at a time
+
+    /**
+     * Save
+     * This method writes the parameter board to a file, replacing it. The nodes
+     * are run length encoded when that is smaller than storing every word. The
+     * board is written to a temporary file in the same directory, which then
+     * replaces the file.
+     *
+     * @param board    the board to save
+     * @param file     the file to write
+     */
+    public static void save(GameBoard board, File file) throws IOException {
+        BitBoard grid = pack(board.getGrid());
+        int words = grid.getWords();
+        long plane = (long) grid.getRows() * words, total = plane * grid.getPlanes();
+
+        // the run length encoding costs a word per run of non-zero words
+        long literals = 0, runs = 0;
+        for(long index = 0; index < total; index++) {
+            if(word(grid, plane, index) != 0) {
+                literals++;
+                runs += index == 0 || word(grid, plane, index - 1) == 0 ? 1 : 0;
+            }
+        }
+        byte encoding = runs + literals < total ? RUNS : PACKED;
+
+        Header header = new Header();
+        header.rows = grid.getRows();
+        header.columns = grid.getColumns();
+        header.generation = board.getGeneration();
+        header.seed = board.getSeed();
+        header.hash = grid.getHash();
+        header.topology = grid.getTopology();
+        header.encoding = encoding;
+        header.rule = grid.getRule().toString();
+        header.length = Header.length(header.rule);
+        long length = header.length + 8 * (encoding == RUNS ? runs + literals : total);
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile("." + file.getName() + ".", ".tmp", dir);
+        try {
+            write(grid, header, plane, total, length, temp);
+            replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Replace
+     * This method renames the parameter temporary file over a file, atomically
+     * where the file system allows it.
+     *
+     * @param temp    the new file, in the same directory
+     * @param file    the file to replace
+     */
+    static void replace(File temp, File file) throws IOException {
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Map
+     * This method maps the region [position, end) of a file for reading and
+     * writing, a chunk at a time, see Words.
+     *
+     * @return MappedByteBuffer[]   the chunks of the region in order.
+     */
+    static MappedByteBuffer[] map(FileChannel channel, long position, long end) throws IOException {
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((end - position + CHUNK - 1) / CHUNK)];
+        for(int c = 0; c < chunks.length; c++, position += CHUNK) {
+            chunks[c] = channel.map(MapMode.READ_WRITE, position, Math.min(CHUNK, end - position));
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    /**
+     * Write
+     * This method writes the header and the nodes of a board to a new file, and
+     * forces them to the disk.
+     *
+     * @param grid      the board to write
+     * @param header    the header of the file
+     * @param plane     the number of words in a plane of the board
+     * @param total     the number of words in every plane of the board
+     * @param length    the length of the file in bytes
+     * @param file      the new file
+     */
+    private static void write(BitBoard grid, Header header, long plane, long total, long length, File file)
+            throws IOException {
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            raf.setLength(length);
+            header.write(channel);
+
+            Words out = new Words(channel, MapMode.READ_WRITE, header.length, length);
+            if(header.encoding == PACKED) {
+                for(long index = 0; index < total; ) {
+                    LongBuffer buffer = out.buffer();
+                    int start = buffer.position();
+                    grid.copyCells((int) (index / plane), (int) (index % plane), buffer);
+                    index += buffer.position() - start;
+                }
+            } else {
+                long zeros = 0;
+                for(long index = 0; index < total; index++) {
+                    if(word(grid, plane, index) == 0) {
+                        zeros++;
+                        continue;
+                    }
+                    long end = index;
+                    while(end < total && word(grid, plane, end) != 0) {
+                        end++;
+                    }
+                    out.put((zeros << 32) | (end - index));
+                    for(; index < end; index++) {
+                        out.put(word(grid, plane, index));
+                    }
+                    index--;
+                    zeros = 0;
+                }
+            }
+            out.force();
+        }
+    }
+
+    /**
+     * Load
+     * This method reads a board from a file written by save().
+     *
+     * @param file          the file to read
+     * @return GameBoard    the board of the file.
+     */
+    public static GameBoard load(File file) throws IOException {
+        return load(file, 1, false);
+    }
+
+    /**
+     * Load
+     * This method reads a board from a file written by save(), onto a board
+     * stepped on the parameter number of threads, see BitBoard.create().
+     *
+     * @param file          the file to read
+     * @param threads       the number of threads to step the board on
+     * @param vector        true to step the board with the vector engine when it is available
+     * @return GameBoard    the board of the file.
+     */
+    public static GameBoard load(File file, int threads, boolean vector) throws IOException {
+        try(RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long length = channel.size();
+            Header header = Header.read(channel, file);
+            int rows = header.rows, columns = header.columns, encoding = header.encoding;
+            String rulestring = header.rule;
+
+            BitBoard grid = BitBoard.create(rows, columns, threads, vector);
+            grid.setTopology(header.topology);
+            try {
+                grid.setRule(Rule.parse(rulestring));
+            } catch(IllegalArgumentException e) {
+                throw new IOException(file + ": unsupported rule " + rulestring);
+            }
+            long plane = (long) rows * grid.getWords(), total = plane * grid.getPlanes();
+
+            Words in = new Words(channel, MapMode.READ_ONLY, header.length, length);
+            if(encoding == PACKED) {
+                for(long index = 0; index < total; ) {
+                    LongBuffer buffer = in.buffer();
+                    int start = buffer.position();
+                    grid.loadCells((int) (index / plane), (int) (index % plane), buffer);
+                    index += buffer.position() - start;
+                }
+            } else if(encoding == RUNS) {
+                for(long index = 0; in.hasRemaining(); ) {
+                    long run = in.get();
+                    index += run >>> 32;
+                    long end = index + (run & 0xFFFFFFFFL);
+                    if(end > total) {
+                        throw new IOException(file + ": run past the end of the board");
+                    }
+                    while(index < end) {
+                        LongBuffer buffer = in.buffer();
+                        LongBuffer slice = buffer.slice().limit((int) Math.min(buffer.remaining(),
+                            Math.min(end - index, plane - index % plane)));
+                        grid.loadCells((int) (index / plane), (int) (index % plane), slice);
+                        buffer.position(buffer.position() + slice.position());
+                        index += slice.position();
+                    }
+                }
+            } else {
+                throw new IOException(file + ": unknown encoding " + encoding);
+            }
+
+            if(grid.rehash() != header.hash) {
+                throw new IOException(file + ": hash does not match, the file is corrupt");
+            }
+            GameBoard board = new GameBoard(grid);
+            board.setGeneration(header.generation);
+            board.setSeed(header.seed);
+            return board;
+        }
+    }
+
+    /**
+     * Word
+     * This method returns word index of the planes of the parameter grid taken
+     * one after another, each plane the parameter number of words long.
+     */
+    private static long word(BitBoard grid, long plane, long index) {
+        return grid.getWord((int) (index / plane), (int) (index % plane));
+    }
+
+    /**
+     * Pack
+     * This method returns the parameter grid as a BitBoard, copying grids that
+     * store their nodes some other way.
+     */
+    private static BitBoard pack(Grid grid) {
+        if(grid instanceof BitBoard) {
+            return (BitBoard) grid;
+        }
+        BitBoard packed = new BitBoard(grid.getRows(), grid.getColumns());
+        packed.setRule(grid.getRule());
+        for(int i = 0; i < grid.getRows(); i++) {
+            for(int j = 0; j < grid.getColumns(); j++) {
+                packed.setValue(i, j, grid.getValue(i, j));
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Header
+     * The fields of the header of a board file, see the layout above.
+     */
+    static class Header {
+        int rows, columns;
+        int length;          // length of the header in bytes, the nodes start here
+        long generation, seed, hash;
+        TopologyType topology = TopologyType.DEAD;
+        byte encoding = PACKED;
+        String rule = Rule.LIFE.toString();
+
+        /**
+         * Length
+         * This method returns the length of the smallest header that holds the
+         * parameter rulestring.
+         */
+        static int length(String rule) {
+            return (44 + rule.length() + 7) & ~7;
+        }
+
+        /**
+         * Read
+         * This method reads and checks the header of the parameter board file.
+         */
+        static Header read(FileChannel channel, File file) throws IOException {
+            long size = channel.size();
+            if(size < 44) {
+                throw new IOException(file + ": not a board file");
+            }
+            ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, 8).order(ByteOrder.LITTLE_ENDIAN);
+            if(buffer.getInt() != MAGIC) {
+                throw new IOException(file + ": not a board file");
+            }
+            Header header = new Header();
+            int version = buffer.getShort();
+            header.length = buffer.getShort() & 0xFFFF;
+            if(version > VERSION) {
+                throw new IOException(file + ": format version " + version + " is newer than " + VERSION);
+            }
+            if(header.length < 44 || header.length > size) {
+                throw new IOException(file + ": bad header length " + header.length);
+            }
+
+            buffer = channel.map(MapMode.READ_ONLY, 0, header.length).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(8);
+            header.rows = buffer.getInt();
+            header.columns = buffer.getInt();
+            header.generation = buffer.getLong();
+            header.seed = buffer.getLong();
+            header.hash = buffer.getLong();
+            int topology = buffer.get();
+            header.encoding = buffer.get();
+            byte[] rule = new byte[buffer.getShort()];
+            if(header.rows <= 0 || header.columns <= 0 || topology < 0 || topology >= TopologyType.values().length
+                    || rule.length > header.length - 44) {
+                throw new IOException(file + ": bad header");
+            }
+            buffer.get(rule);
+            header.topology = TopologyType.values()[topology];
+            header.rule = new String(rule, StandardCharsets.US_ASCII);
+            return header;
+        }
+
+        /**
+         * Write
+         * This method writes the header to the start of the parameter board file,
+         * and forces it to the disk.
+         */
+        void write(FileChannel channel) throws IOException {
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, length);
+            write(buffer);
+            buffer.force();
+        }
+
+        /**
+         * Write
+         * This method writes the header to the start of the parameter buffer,
+         * which holds the first length bytes of a board file.
+         */
+        void write(ByteBuffer buffer) throws IOException {
+            byte[] rule = this.rule.getBytes(StandardCharsets.US_ASCII);
+            if(length(this.rule) > length) {
+                throw new IOException("the rulestring " + this.rule + " does not fit a header of " + length + " bytes");
+            }
+            buffer.clear();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putShort((short) VERSION);
+            buffer.putShort((short) length);
+            buffer.putInt(rows);
+            buffer.putInt(columns);
+            buffer.putLong(generation);
+            buffer.putLong(seed);
+            buffer.putLong(hash);
+            buffer.put((byte) topology.ordinal());
+            buffer.put(encoding);
+            buffer.putShort((short) rule.length);
+            buffer.put(rule);
+        }
+    }
+
+    /**
+     * Words
+     * The words of a region of a file, mapped a chunk at a time as they are
+     * read or written. Each chunk that was written is forced to the disk before
+     * the next is mapped, and the last by force(). The words can also be read
+     * and written through chunks the caller has already mapped, see map(),
+     * which are then left for the caller to force.
+     */
+    static class Words {
+        private FileChannel channel;
+        private MapMode mode;
+        private long position, end;
+        private MappedByteBuffer mapped;     // the chunk being read or written
+        private MappedByteBuffer[] chunks;   // chunks mapped by the caller, null to map them here
+        private int chunk;
+        private LongBuffer buffer = LongBuffer.allocate(0);
+
+        public Words(FileChannel channel, MapMode mode, long position, long end) {
+            this.channel = channel;
+            this.mode = mode;
+            this.position = position;
+            this.end = end;
+        }
+
+        public Words(MappedByteBuffer[] chunks) {
+            this.chunks = chunks;
+        }
+
+        public boolean hasRemaining() {
+            return buffer.hasRemaining() || (chunks != null ? chunk < chunks.length : end - position >= 8);
+        }
+
+        public LongBuffer buffer() throws IOException {
+            if(!buffer.hasRemaining() && chunks != null) {
+                if(chunk == chunks.length) {
+                    throw new EOFException("unexpected end of board file");
+                }
+                buffer = chunks[chunk++].asLongBuffer();
+            } else if(!buffer.hasRemaining()) {
+                long size = Math.min(CHUNK, (end - position) & ~7L);
+                if(size <= 0) {
+                    throw new EOFException("unexpected end of board file");
+                }
+                force();
+                mapped = channel.map(mode, position, size);
+                buffer = mapped.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+                position += size;
+            }
+            return buffer;
+        }
+
+        public void force() {
+            if(mapped != null && mode == MapMode.READ_WRITE) {
+                mapped.force();
+            }
+        }
+
+        public long get() throws IOException {
+            return buffer().get();
+        }
+
+        public void put(long word) throws IOException {
+            buffer().put(word);
+        }
+
+        public void get(long[] dest, int offset, int length) throws IOException {
+            while(length > 0) {
+                LongBuffer buffer = buffer();
+                int count = Math.min(length, buffer.remaining());
+                buffer.get(dest, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        public void put(long[] src, int offset, int length) throws IOException {
+            while(length > 0) {
+                LongBuffer buffer = buffer();
+                int count = Math.min(length, buffer.remaining());
+                buffer.put(src, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+    }
+}
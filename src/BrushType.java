@@ -141,8 +141,15 @@ public enum BrushType {
 
     // fields
     private int[][] structure;
+    private Pattern pattern;    // the structure compiled to a bit-packed stamp
 
     // methods
     public int[][] getStructure() { return this.structure; }
+    public synchronized Pattern getPattern() { 
+        if(pattern == null) {
+            pattern = new Pattern(this);
+        }
+        return this.pattern; 
+    }
     private BrushType(int[][] structure) { this.structure = structure; }
 }
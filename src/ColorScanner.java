@@ -1,7 +1,9 @@
 /**
  * @class ColorScanner
  * @description This singleton class is used to scan png images for use of mapping
- * colors to the nodes on the grid.
+ * colors to the nodes on the grid. Color maps are packed ARGB ints, one per node
+ * of the board, and are cached per image, scale and board size so a theme is only
+ * decoded the first time it is used.
  * @author Damon Greenhalgh
  */
 
@@ -9,47 +11,89 @@
 // dependencies
 import java.io.File;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.imageio.ImageIO;
-import java.awt.Color;
 
 public class ColorScanner {
 
     // Fields 
     private static ColorScanner scanner = new ColorScanner();
-    private Color[][] colorMap;
+    private static final int MAX_MAPS = 8, MAX_PIXELS = 1 << 24;    // bounds of the cache
+    private static final int FALLBACK = 0xFF808080;                 // color of the nodes when the image can not be read
+    private LinkedHashMap<String, int[]> cache = new LinkedHashMap<String, int[]>(16, 0.75f, true);
+    private long cachedPixels;
+    private int[] colorMap;
 
     // Constructor
     private ColorScanner() {}; 
 
     /**
      * Scan
-     * This method scans the parameter file for each pixel color. The pixel color 
-     * is then mapped to the colorMap array used for the grid. This method
-     * assumes a 16:9 resolution
-     * @param file     the file to scan.
-     * @param scale    the scaling factor of the grid.
+     * This method returns the color map of the parameter file for a board of the
+     * parameter size, the color of node (i, j) is at i * columns + j. The image is
+     * sampled every scale pixels, boards larger than the sampled image are
+     * stretched over it. Maps are cached, the least recently used are dropped
+     * once there are too many.
+     *
+     * @param file       the file to scan.
+     * @param scale      the scaling factor of the grid.
+     * @param rows       the number of rows of the board
+     * @param columns    the number of columns of the board
+     * @return int[]     the ARGB color of each node, shared and not to be modified.
      */
-    public void scan(File file, int scale) {
-        // build colors array to match the gradient image
+    public synchronized int[] scan(File file, int scale, int rows, int columns) {
+        String key = file.getAbsolutePath() + ":" + file.lastModified() + ":" + scale + ":" + rows + "x" + columns;
+        colorMap = cache.get(key);
+        if(colorMap != null) {
+            return colorMap;
+        }
+
+        colorMap = new int[rows * columns];
         try {
             BufferedImage image = ImageIO.read(file);
-            int rows = image.getHeight() / scale;
-            int columns = image.getWidth() / scale;
-            colorMap = new Color[rows][columns];
+            int width = image.getWidth(), height = image.getHeight();
+            int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            int mapRows = height / scale;
+            int mapColumns = width / scale;
 
-            // iterate through each pixel, store the color at the corresponding
-            // location in the colorMap array.
+            // each node takes the color of its pixel, stretched when the board
+            // has more nodes than the image has pixels
             for(int i = 0; i < rows; i++) {
+                int mi = rows <= mapRows ? i : (int) ((long) i * mapRows / rows);
                 for(int j = 0; j < columns; j++) {
-                    int pixel = image.getRGB(j * scale, i * scale);
-                    Color color = new Color(pixel, true);
-                    colorMap[i][j] = color;
+                    int mj = columns <= mapColumns ? j : (int) ((long) j * mapColumns / columns);
+                    colorMap[i * columns + j] = pixels[Math.min(mi, mapRows - 1) * scale * width + Math.min(mj, mapColumns - 1) * scale];
                 }
             }
-        } catch(Exception ex) { System.out.println(ex); }
+        } catch(Exception ex) { 
+            System.out.println(ex); 
+            Arrays.fill(colorMap, FALLBACK);
+            return colorMap;
+        }
+
+        cache.put(key, colorMap);
+        cachedPixels += colorMap.length;
+        Iterator<Map.Entry<String, int[]>> eldest = cache.entrySet().iterator();
+        while(cache.size() > 1 && (cache.size() > MAX_MAPS || cachedPixels > MAX_PIXELS)) {
+            cachedPixels -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+        return colorMap;
+    }
+
+    /**
+     * ClearCache
+     * This method drops every cached color map.
+     */
+    public synchronized void clearCache() {
+        cache.clear();
+        cachedPixels = 0;
     }
 
     // Accessors / Mutators
-    public Color[][] getColorMap() { return colorMap; }
+    public int[] getColorMap() { return colorMap; }
     public static ColorScanner getColorScanner() { return scanner; }
-}
\ No newline at end of file
+}
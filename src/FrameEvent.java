@@ -0,0 +1,32 @@
+/**
+ * @class FrameEvent
+ * @description This class defines the flight recorder event committed for each
+ * frame drawn by the GUI, the event spans the drawing of the snapshot so its
+ * duration is the render time, see GenerationEvent. The event is only created
+ * while a recording has it enabled, see TYPE.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("life.Frame")
+@Label("Frame")
+@Category("Game of Life")
+@Description("A snapshot of the board drawn by the display")
+public class FrameEvent extends Event {
+
+    // Fields
+    static final EventType TYPE = EventType.getEventType(FrameEvent.class);
+
+    @Label("Generation")
+    long generation;
+
+    @Label("Nodes Repainted")
+    long repainted;
+}
@@ -9,35 +9,57 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class GUI extends JFrame{
 
     // Fields
-    private JPanel GRID_PANEL, OPTIONS_PANEL, SLIDER_PANEL;
-    private JLabel lblNumIterations, lblSpeed, lblTheme;
-    private JButton btnStart, btnReset, btnStep, btnRandom, btnBrush, btnQuit;
-    private JSlider sdrSpeed;
+    private GridPanel GRID_PANEL;
+    private JPanel OPTIONS_PANEL, SLIDER_PANEL;
+    private JLabel lblNumIterations, lblSpeed, lblTimeline, lblTheme, lblRepainted, lblRate;
+    private JButton btnStart, btnReset, btnStep, btnRandom, btnBrush, btnLoad, btnRotate, btnFlip, btnHud, btnQuit;
+    private JSlider sdrSpeed, sdrTimeline;
     private JComboBox<ThemeType> cmbTheme; 
-    private JComboBox<BrushType> cmbBrush;
+    private JComboBox<Pattern> cmbBrush;
+    private JComboBox<RuleType> cmbRule;
     private Font font;
     private GameBoard board;
+    private Simulation simulation;
+    private Timeline timeline;
+    private AtomicLong scrub = new AtomicLong(-1);   // generation to seek to, -1 if none is pending
+    private Snapshot shown;
     private File file;
     private ColorScanner colorScanner;
-    private Color[][] colorMap;
+    private int[] colorMap;
     private Color fgColor, bgColor, startColor, stopColor, continueColor, mainColor; 
     private Timer timer;
-    private BrushType brush;
-    private int rows, columns, scale, numIterations, delay; 
-    private boolean timerState, brushState;
+    private Pattern brush;
+    private OrientationType orientation;
+    private int rows, columns, scale, delay, frames; 
+    private long rateTime, rateGenerations;
+    private boolean timerState, brushState, halted, hud, scrubbing;
 
     /**
      * Constructor
-     * Used to instantiate gui components.
+     * Used to instantiate gui components with the default board size.
      */
     public GUI() {
+        this(51, 96);
+    }
+
+    /**
+     * Constructor
+     * Used to instantiate gui components.
+     * 
+     * @param rows       the number of rows of the board
+     * @param columns    the number of columns of the board
+     */
+    public GUI(int rows, int columns) {
         
         // setup color scanner
         colorScanner = ColorScanner.getColorScanner();
@@ -55,9 +77,23 @@ public class GUI extends JFrame{
 
         // setup logical board
         scale = 1;   
-        rows = 51 / scale;    
-        columns = 96 / scale;       
-        board = new GameBoard(rows, columns);
+        this.rows = rows / scale;    
+        this.columns = columns / scale;       
+        board = new GameBoard(this.rows, this.columns);
+
+        // setup timeline, each generation is journaled so the board can be rewound,
+        // older generations spill to a temporary file, the oldest are forgotten
+        try {
+            timeline = new Timeline(64L << 20, File.createTempFile("life", ".timeline"), 1L << 30);
+        } catch(IOException ex) {
+            timeline = new Timeline(64L << 20);
+        }
+        board.setTimeline(timeline);
+
+        // setup simulation thread, from here the board is only edited through it
+        simulation = new Simulation(board);
+        simulation.setDelay(400);
+        shown = simulation.getSnapshot();
 
         // setup frame
         setTitle("Conway's Game of Life");
@@ -69,40 +105,32 @@ public class GUI extends JFrame{
         setUndecorated(true);
 
         // setup panels
-        GRID_PANEL = new JPanel(new GridLayout(rows, columns));
+        GRID_PANEL = new GridPanel(shown);
         GRID_PANEL.setPreferredSize(new Dimension(1920, 1020));
+        GRID_PANEL.addMouseListener(new MyGridListener());
+        GRID_PANEL.setFont(font);
 
         OPTIONS_PANEL = new JPanel();
         OPTIONS_PANEL.setPreferredSize(new Dimension(1920, 50));
 
-        SLIDER_PANEL = new JPanel(new GridLayout(2, 1));
-
-        // set up grid components
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                Node node = board.getNode(i, j);
-                node.addActionListener(new MyGridListener());
-                GRID_PANEL.add(node);
-            }
-        }
+        SLIDER_PANEL = new JPanel(new GridLayout(2, 2));
 
         // start button, used to start/stop/continue the simulation
         btnStart = new JButton("START");
         btnStart.setPreferredSize(new Dimension(200, 30));
         btnStart.setFont(font);
         btnStart.setBorderPainted(false);
-        timer = new Timer(400, new MyStepListener());
         timerState = true;
         btnStart.addActionListener(new AbstractAction(){
             @Override
             public void actionPerformed(ActionEvent e) {
                 if(timerState) {
-                    timer.start();
+                    simulation.resume();
                     timerState = false;
                     btnStart.setText("STOP");
                     btnStart.setBackground(stopColor);
                 } else {
-                    timer.stop();
+                    simulation.pause();
                     timerState = true;
                     btnStart.setText("CONTINUE");
                     btnStart.setBackground(continueColor);
@@ -133,7 +161,7 @@ public class GUI extends JFrame{
 
         // brush/eraser button, used to swap between brush mode and eraser mode
         brushState = true;
-        brush = BrushType.SINGLE;
+        brush = new Pattern(BrushType.SINGLE);
         btnBrush = new JButton("BRUSH");
         btnBrush.setPreferredSize(new Dimension(120, 30));
         btnBrush.setFont(font);
@@ -152,17 +180,54 @@ public class GUI extends JFrame{
         });
 
         // preset combobox, draws preset structure on the grid
-        cmbBrush = new JComboBox<BrushType>(BrushType.values());
+        cmbBrush = new JComboBox<Pattern>();
+        for(BrushType bt : BrushType.values()) {
+            cmbBrush.addItem(bt == BrushType.SINGLE ? brush : new Pattern(bt));
+        }
         cmbBrush.setFont(font);
         cmbBrush.addActionListener(new AbstractAction(){
             @Override
             public void actionPerformed(ActionEvent e) {
-                @SuppressWarnings("unchecked") JComboBox<BrushType> box = (JComboBox<BrushType>)e.getSource();
-                brush = (BrushType)box.getSelectedItem();
+                @SuppressWarnings("unchecked") JComboBox<Pattern> box = (JComboBox<Pattern>)e.getSource();
+                brush = (Pattern)box.getSelectedItem();
             }
         });
 
-        // speed slider, used to change the delay of each new iteration
+        // rotate and flip buttons, used to turn the brush before drawing it
+        orientation = OrientationType.ROTATE0;
+        btnRotate = new JButton("ROTATE: 0");
+        btnRotate.setPreferredSize(new Dimension(130, 30));
+        btnRotate.setFont(font);
+        btnRotate.setBorderPainted(false);
+        btnRotate.addActionListener(new AbstractAction(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                orientation = orientation.rotate();
+                btnRotate.setText("ROTATE: " + 90 * orientation.getTurns());
+            }
+        });
+
+        btnFlip = new JButton("FLIP: OFF");
+        btnFlip.setPreferredSize(new Dimension(110, 30));
+        btnFlip.setFont(font);
+        btnFlip.setBorderPainted(false);
+        btnFlip.addActionListener(new AbstractAction(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                orientation = orientation.flip();
+                btnFlip.setText(orientation.isFlipped() ? "FLIP: ON" : "FLIP: OFF");
+            }
+        });
+
+        // load button, reads a pattern file and adds it to the brushes
+        btnLoad = new JButton("LOAD");
+        btnLoad.setPreferredSize(new Dimension(100, 30));
+        btnLoad.setFont(font);
+        btnLoad.setBorderPainted(false);
+        btnLoad.addActionListener(new MyLoadListener());
+
+        // speed slider, used to change the delay of each new iteration, the
+        // highest speed steps as fast as the board allows
         // speed label
         lblSpeed = new JLabel("SPEED: 1x");
         lblSpeed.setPreferredSize(new Dimension(200, 10));
@@ -175,21 +240,96 @@ public class GUI extends JFrame{
         sdrSpeed.addChangeListener(new ChangeListener(){
             public void stateChanged(ChangeEvent e) {
                 delay = 100 * Math.abs(sdrSpeed.getValue() - 8);
-                timer.setDelay(Math.max(delay, 100));
-                lblSpeed.setText("Speed: " + 250 * sdrSpeed.getValue() / 1000.0 + "x");
+                simulation.setDelay(delay);
+                if(delay == 0) {
+                    lblSpeed.setText("SPEED: MAX");
+                } else {
+                    lblSpeed.setText("Speed: " + 250 * sdrSpeed.getValue() / 1000.0 + "x");
+                }
+            }
+        });
+
+        // timeline slider, scrubs the board back and forth through the recorded
+        // generations, pausing the simulation
+        lblTimeline = new JLabel("TIMELINE: 0");
+        lblTimeline.setPreferredSize(new Dimension(200, 10));
+        lblTimeline.setFont(font);
+        lblTimeline.setHorizontalAlignment(0);
+
+        sdrTimeline = new JSlider(0, 0);
+        sdrTimeline.addChangeListener(new ChangeListener(){
+            public void stateChanged(ChangeEvent e) {
+                if(scrubbing) {
+                    return;
+                }
+                lblTimeline.setText("TIMELINE: " + sdrTimeline.getValue());
+                if(!timerState || halted) {
+                    simulation.pause();
+                    timerState = true;
+                    halted = false;
+                    enableControls();
+                    btnStart.setText("CONTINUE");
+                    btnStart.setBackground(continueColor);
+                }
+
+                // seeks are coalesced while the slider is dragged
+                if(scrub.getAndSet(sdrTimeline.getValue()) < 0) {
+                    simulation.submit(() -> board.seek(scrub.getAndSet(-1)));
+                }
             }
         });
 
         // add slider components to slider panel
         SLIDER_PANEL.add(lblSpeed);
+        SLIDER_PANEL.add(lblTimeline);
         SLIDER_PANEL.add(sdrSpeed);
+        SLIDER_PANEL.add(sdrTimeline);
 
         // number of iterations label, used to display the current number of iterations
-        lblNumIterations = new JLabel("" + numIterations);
+        lblNumIterations = new JLabel("0");
         lblNumIterations.setPreferredSize(new Dimension(100, 30));
         lblNumIterations.setFont(new Font("Arial", Font.BOLD, 30));
         lblNumIterations.setHorizontalAlignment(0);
 
+        // repainted label, used to display the number of nodes redrawn last frame
+        lblRepainted = new JLabel("REPAINT: 0");
+        lblRepainted.setPreferredSize(new Dimension(130, 30));
+        lblRepainted.setFont(font);
+
+        // rate label, used to display the generations and frames per second
+        lblRate = new JLabel("GEN/S: 0  FPS: 0");
+        lblRate.setPreferredSize(new Dimension(200, 30));
+        lblRate.setFont(font);
+
+        // hud button, overlays the rates, population and timings on the board,
+        // the metrics are only recorded while it is on
+        btnHud = new JButton("HUD: OFF");
+        btnHud.setPreferredSize(new Dimension(110, 30));
+        btnHud.setFont(font);
+        btnHud.setBorderPainted(false);
+        btnHud.addActionListener(new AbstractAction(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                hud = !hud;
+                btnHud.setText(hud ? "HUD: ON" : "HUD: OFF");
+                Metrics.getMetrics().reset();
+                Metrics.getMetrics().setEnabled(hud);
+                GRID_PANEL.setHud(hud ? new String[] {"HUD"} : null);
+            }
+        });
+
+        // rule combobox, changes the rule the board evolves by
+        cmbRule = new JComboBox<RuleType>(RuleType.values());
+        cmbRule.setFont(font);
+        cmbRule.addActionListener(new AbstractAction(){
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                @SuppressWarnings("unchecked") JComboBox<RuleType> box = (JComboBox<RuleType>)e.getSource();
+                Rule rule = ((RuleType)box.getSelectedItem()).getRule();
+                simulation.submit(() -> board.setRule(rule));
+            }
+        });
+
         //theme label
         lblTheme = new JLabel("THEME: ");
         lblTheme.setPreferredSize(new Dimension(70, 30));
@@ -229,8 +369,15 @@ public class GUI extends JFrame{
         OPTIONS_PANEL.add(btnRandom);
         OPTIONS_PANEL.add(btnBrush);
         OPTIONS_PANEL.add(cmbBrush);
+        OPTIONS_PANEL.add(btnRotate);
+        OPTIONS_PANEL.add(btnFlip);
+        OPTIONS_PANEL.add(btnLoad);
+        OPTIONS_PANEL.add(cmbRule);
         OPTIONS_PANEL.add(SLIDER_PANEL);
         OPTIONS_PANEL.add(lblNumIterations);
+        OPTIONS_PANEL.add(lblRepainted);
+        OPTIONS_PANEL.add(lblRate);
+        OPTIONS_PANEL.add(btnHud);
         OPTIONS_PANEL.add(lblTheme);
         OPTIONS_PANEL.add(cmbTheme);
         OPTIONS_PANEL.add(btnQuit);
@@ -240,23 +387,114 @@ public class GUI extends JFrame{
         add(GRID_PANEL, BorderLayout.CENTER);
         add(OPTIONS_PANEL, BorderLayout.SOUTH);
         setVisible(true); 
+
+        // start the simulation thread and draw its snapshots at the display rate
+        simulation.start();
+        rateTime = System.nanoTime();
+        timer = new Timer(1000 / 60, new MyFrameListener());
+        timer.start();
     }
 
     /**
      * Update
-     * This method updates each node to display the correct color.
+     * This method draws the latest snapshot published by the simulation, if it
+     * has not been drawn yet. Only the nodes changed since the snapshot on screen
+     * are redrawn, snapshots published in between are skipped.
      */
     public void update() {
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                Node node = board.getNode(i, j);
-                if(node.getState()) {    // alive
-                    node.setBackground(colorMap[i][j]);
-                } else {                 // dead
-                    node.setBackground(bgColor);
-                }
-            }
+        Snapshot snapshot = simulation.getSnapshot();
+        if(snapshot == shown) {
+            return;
         }
+        shown = snapshot;
+        frames++;
+
+        // the frame is measured when a flight recording or the hud asks for it
+        int repainted = FrameEvent.TYPE.isEnabled() || Metrics.getMetrics().isEnabled()
+                      ? measure(snapshot, new FrameEvent()) : GRID_PANEL.show(snapshot);
+        lblRepainted.setText("REPAINT: " + repainted);
+        lblNumIterations.setText("" + snapshot.getGeneration());
+        updateTimeline(snapshot);
+
+        // occurs when the game hits a static state or a cycle where the need of 
+        // incrementing the number of iterations becomes redundant.
+        if(!halted && (snapshot.isHalted() || snapshot.getPeriod() > 0)) {
+            halted = true;
+            timerState = true;
+
+            // disable buttons
+            btnStart.setEnabled(false);
+            btnStep.setEnabled(false);
+            btnRandom.setEnabled(false);
+            btnBrush.setEnabled(false);
+
+            // style
+            btnStart.setText(snapshot.isHalted() ? "CONTINUE" : "PERIOD " + snapshot.getPeriod());
+            btnStart.setBackground(bgColor);
+            btnStep.setBackground(bgColor);
+            btnRandom.setBackground(bgColor);
+            btnBrush.setBackground(bgColor);
+        }
+    }
+
+    /**
+     * Measure
+     * This method draws the parameter snapshot, timing the drawing for the
+     * metrics and committing the flight recorder event of the frame.
+     *
+     * @param event    the flight recorder event of the frame
+     * @return int     the number of nodes repainted.
+     */
+    private int measure(Snapshot snapshot, FrameEvent event) {
+        long start = System.nanoTime();
+        event.begin();
+        int repainted = GRID_PANEL.show(snapshot);
+        event.end();
+        Metrics.getMetrics().record(Metrics.RENDER, System.nanoTime() - start);
+        if(event.shouldCommit()) {
+            event.generation = snapshot.getGeneration();
+            event.repainted = repainted;
+            event.commit();
+        }
+        return repainted;
+    }
+
+    /**
+     * UpdateTimeline
+     * This method moves the timeline slider to the generation of the parameter
+     * snapshot and stretches it over the recorded generations, unless it is
+     * being dragged.
+     *
+     * @param snapshot    the snapshot on screen
+     */
+    private void updateTimeline(Snapshot snapshot) {
+        if(sdrTimeline.getValueIsAdjusting() || scrub.get() >= 0) {
+            return;
+        }
+        int generation = (int) Math.min(snapshot.getGeneration(), Integer.MAX_VALUE);
+        int first = timeline.getFirst() < 0 ? generation : (int) Math.min(timeline.getFirst(), generation);
+        int last = (int) Math.max(generation, Math.min(timeline.getLast(), Integer.MAX_VALUE));
+        scrubbing = true;
+        sdrTimeline.getModel().setRangeProperties(generation, 0, first, last, false);
+        lblTimeline.setText("TIMELINE: " + generation);
+        scrubbing = false;
+    }
+
+    /**
+     * EnableControls
+     * This method enables the controls disabled when the board halts.
+     */
+    private void enableControls() {
+        // enable buttons
+        btnStart.setEnabled(true);
+        btnStep.setEnabled(true);
+        btnRandom.setEnabled(true);
+        btnBrush.setEnabled(true);
+
+        // style
+        btnStep.setBackground(mainColor);
+        btnRandom.setBackground(mainColor);
+        btnBrush.setBackground(mainColor);
     }
 
     /**
@@ -286,9 +524,8 @@ public class GUI extends JFrame{
             }
         }
 
-        // generate color map for background
-        colorScanner.scan(file, scale);
-        colorMap = colorScanner.getColorMap();
+        // color map for the alive nodes, cached after the first use of each theme
+        colorMap = colorScanner.scan(file, scale, rows, columns);
 
         // edit component colors
         GRID_PANEL.setBackground(fgColor);
@@ -312,18 +549,37 @@ public class GUI extends JFrame{
 
         lblSpeed.setForeground(mainColor);
         sdrSpeed.setBackground(fgColor);
+        lblTimeline.setForeground(mainColor);
+        sdrTimeline.setBackground(fgColor);
         
         lblNumIterations.setForeground(mainColor);
+        lblRepainted.setForeground(mainColor);
+        lblRate.setForeground(mainColor);
+
+        btnHud.setBackground(mainColor);
+        btnHud.setForeground(fgColor);
 
         cmbBrush.setBackground(fgColor);
         cmbBrush.setForeground(mainColor);
 
+        cmbRule.setBackground(fgColor);
+        cmbRule.setForeground(mainColor);
+
         cmbTheme.setBackground(fgColor);
         cmbTheme.setForeground(mainColor);
 
         btnBrush.setBackground(mainColor);
         btnBrush.setForeground(fgColor);
 
+        btnLoad.setBackground(mainColor);
+        btnLoad.setForeground(fgColor);
+
+        btnRotate.setBackground(mainColor);
+        btnRotate.setForeground(fgColor);
+
+        btnFlip.setBackground(mainColor);
+        btnFlip.setForeground(fgColor);
+
         lblTheme.setBackground(bgColor);
         lblTheme.setForeground(mainColor);
 
@@ -332,17 +588,7 @@ public class GUI extends JFrame{
         
         
         // edit node colors
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                Node node = board.getNode(i, j);
-                node.setBorder(BorderFactory.createLineBorder(fgColor, 1));
-                if(node.getState()) {
-                    node.setBackground(colorMap[i][j]);
-                } else {
-                    node.setBackground(bgColor);
-                }
-            }
-        }
+        GRID_PANEL.setTheme(colorMap, bgColor, fgColor);
     }
 
     /**
@@ -354,10 +600,12 @@ public class GUI extends JFrame{
      * @param row       the row index to start drawing at
      * @param column    the column index to start drawing at
      */
-    public void drawPreset(BrushType pt, int row, int column) {
-        board.clear();
-        board.preset(pt, brushState, row, column);
-        update();
+    public void drawPreset(Pattern pt, int row, int column) {
+        final boolean state = brushState;
+        simulation.submit(() -> {
+            board.clear();
+            board.preset(pt, state, row, column);
+        });
     }
 
     /**
@@ -368,45 +616,81 @@ public class GUI extends JFrame{
     private class MyRandomListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            board.random();
-            update();
+            simulation.submit(board::random);
+        }
+    }
+
+    /**
+     * MyLoadListener
+     * Listener for the load button, reads the chosen pattern file away from the
+     * event thread and selects it as the brush.
+     */
+    private class MyLoadListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            JFileChooser chooser = new JFileChooser(new File("."));
+            chooser.setFileFilter(new FileNameExtensionFilter("Patterns (rle, lif, life, cells)", "rle", "lif", "life", "cells"));
+            if(chooser.showOpenDialog(GUI.this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File selected = chooser.getSelectedFile();
+            new Thread(() -> {
+                try {
+                    Pattern pattern = PatternReader.read(selected);
+                    SwingUtilities.invokeLater(() -> {
+                        cmbBrush.addItem(pattern);
+                        cmbBrush.setSelectedItem(pattern);
+                    });
+                } catch(IOException | OutOfMemoryError ex) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(GUI.this, 
+                        "Could not load " + selected.getName() + ": " + ex.getMessage()));
+                }
+            }).start();
         }
     }
 
     /**
      * MyStepListener
-     * Listener for the step button, generates the next iteration and updates the
-     * board for a single iteration.
+     * Listener for the step button, generates the next iteration of the board
+     * on the simulation thread.
      */
     private class MyStepListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            boolean deadLocked = board.next();
+            simulation.step();
+        }
+    }
+
+    /**
+     * MyFrameListener
+     * Listener for the frame timer, draws the latest snapshot and once a second
+     * updates the number of generations and frames per second, and the hud
+     * when it is on.
+     */
+    private class MyFrameListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
             update();
-            numIterations++;
-            lblNumIterations.setText("" + numIterations);
-            
-            // occurs when the game hits a static state where the need of incrementing 
-            // numIterations becomes redundant.
-            if(deadLocked) {
-                timer.stop();
-                timerState = true;
-
-                // disable buttons
-                btnStart.setEnabled(false);
-                btnStep.setEnabled(false);
-                btnRandom.setEnabled(false);
-                btnBrush.setEnabled(false);
-
-                // style
-                btnStart.setText("CONTINUE");
-                btnStart.setBackground(bgColor);
-                btnStep.setBackground(bgColor);
-                btnRandom.setBackground(bgColor);
-                btnBrush.setBackground(bgColor);
-
-                // popup to display number of iterations
-                // ?
+
+            long now = System.nanoTime();
+            if(now - rateTime >= 1000000000L) {
+                long generations = simulation.getGenerations();
+                double seconds = (now - rateTime) / 1e9;
+                double gens = (generations - rateGenerations) / seconds, fps = frames / seconds;
+                lblRate.setText(String.format("GEN/S: %.0f  FPS: %.0f", gens, fps));
+                if(hud) {
+                    Metrics metrics = Metrics.getMetrics();
+                    GRID_PANEL.setHud(
+                        String.format("GEN/S: %.0f  FPS: %.0f", gens, fps),
+                        "POPULATION: " + metrics.last(Metrics.POPULATION),
+                        String.format("STEP: p50 %.3f ms  p99 %.3f ms",
+                            metrics.percentile(Metrics.STEP, 50) / 1e6, metrics.percentile(Metrics.STEP, 99) / 1e6),
+                        String.format("RENDER: p50 %.3f ms  p99 %.3f ms",
+                            metrics.percentile(Metrics.RENDER, 50) / 1e6, metrics.percentile(Metrics.RENDER, 99) / 1e6));
+                }
+                rateGenerations = generations;
+                rateTime = now;
+                frames = 0;
             }
         }
     }
@@ -418,41 +702,30 @@ public class GUI extends JFrame{
     private class MyClearListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            board.clear();
-            update();
-            timer.stop();
+            simulation.pause();
+            simulation.submit(board::clear);
             timerState = true;
-            numIterations = 0;
-
-            // enable buttons
-            btnStart.setEnabled(true);
-            btnStep.setEnabled(true);
-            btnRandom.setEnabled(true);
-            btnBrush.setEnabled(true);
-
-            // style
+            halted = false;
+            enableControls();
             btnStart.setText("START");
             btnStart.setBackground(startColor);
-            btnStep.setBackground(mainColor);
-            btnRandom.setBackground(mainColor);
-            btnBrush.setBackground(mainColor);
-            lblNumIterations.setText("" + numIterations);
+            lblNumIterations.setText("0");
         }
     }
 
     /**
      * MyGridListener
-     * Listener for nodes on the grid, sets the node to dead or alive depending on its
-     * current state.
+     * Listener for the grid, draws the brush at the node under the mouse. The node
+     * is found from the mouse position.
      */
-    private class MyGridListener implements ActionListener {
+    private class MyGridListener extends MouseAdapter {
         @Override
-        public void actionPerformed(ActionEvent e) {
-            Node node = (Node) e.getSource();
-            int[] coords = node.getCoords();
-            board.preset(brush, brushState, coords[0], coords[1]);
-            update();
-            
+        public void mousePressed(MouseEvent e) {
+            int row = GRID_PANEL.rowAt(e.getY());
+            int column = GRID_PANEL.columnAt(e.getX());
+            final Pattern pattern = brush.orient(orientation);
+            final boolean state = brushState;
+            simulation.submit(() -> board.preset(pattern, state, row, column));
         }
     }
 }
\ No newline at end of file
@@ -1,50 +1,95 @@
 /**
  * @class GameBoard
  * @description This class defines the gameboard. The gameboard object is the 
- * logical foundation of the game.
+ * logical foundation of the game, the state of the nodes is held by a grid so
+ * the gameboard can be used without a display.
  * @author Damon Greenhalgh
  */
 
  // dependencies
+import java.io.File;
+import java.io.IOException;
 import java.util.Random;
 
 public class GameBoard {
     
     // Fields
-    private Node[][] nodes; 
+    private Grid grid;
     private int rows, columns;
+    private long generation, period, cycleStart;
+    private long seed;                             // seed of the last random fill, 0 if none
+    private long[] history, historyGenerations;    // ring buffer of recent hashes
+    private int historySize, historyNext;
+    private long population = -1;                  // live nodes, -1 until counted
+    private Timeline timeline;                     // journal of the generations, null if not kept
 
     /**
      * Constructor
-     * Generates the gameboard.
+     * Generates the gameboard on a bit-packed grid.
      */
     public GameBoard(int rows, int columns) { 
-        this.rows = rows;
-        this.columns = columns;
-        nodes = new Node[rows][columns]; 
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                nodes[i][j] = new Node(new int[] {i, j});
-            }
-        }
+        this(new BitBoard(rows, columns));
+    }
+
+    /**
+     * Constructor
+     * Generates the gameboard on the parameter grid.
+     */
+    public GameBoard(Grid grid) {
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.columns = grid.getColumns();
+        setHistoryLength(256);
     }
 
     // Accessors/Mutators
-    public Node getNode(int i, int j) { return nodes[i][j]; }
-    public void setNode(int i, int j, boolean state) { nodes[i][j].setState(state); }
+    public Grid getGrid() { return grid; }
+    public boolean getState(int i, int j) { return grid.getState(i, j); }
+    public void setState(int i, int j, boolean state) { 
+        grid.setState(i, j, state);
+        resetHistory();
+    }
     public int getRows() { return rows; }
     public int getColumns() { return columns; }
+    public long getGeneration() { return generation; }
+    public void setGeneration(long generation) {
+        this.generation = generation;
+        resetHistory();
+    }
+    public Rule getRule() { return grid.getRule(); }
+    public void setRule(Rule rule) {
+        grid.setRule(rule);
+        resetHistory();
+    }
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
+    public long getPeriod() { return period; }
+    public long getCycleStart() { return cycleStart; }
+    public Timeline getTimeline() { return timeline; }
+    public void setTimeline(Timeline timeline) { this.timeline = timeline; }
+
+    /**
+     * SetHistoryLength
+     * This method sets the number of recent generations kept to detect cycles,
+     * cycles with a longer period are not detected.
+     *
+     * @param length    the number of generations to keep
+     */
+    public void setHistoryLength(int length) {
+        history = new long[length];
+        historyGenerations = new long[length];
+        resetHistory();
+    }
 
     /**
      * Clear
      * This method clears the board, sets all nodes to false (dead).
      */
     public void clear() {
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                nodes[i][j].setState(false);
-            }
-        }
+        grid.clear();
+        seed = 0;
+        generation = 0;
+        resetHistory();
     }
 
     /**
@@ -53,16 +98,38 @@ public class GameBoard {
      * or dead.
      */
     public void random() {
-        Random random = new Random();
+        random(new Random().nextLong(), 0.5);
+    }
+
+    /**
+     * Random
+     * This method randomizes each node on the board from the parameter seed,
+     * the seed is kept so the board can be recreated, see getSeed().
+     *
+     * @param seed       the seed of the random fill
+     * @param density    the probability of a node being alive
+     */
+    public void random(long seed, double density) {
+        random(new Random(seed), density);
+        this.seed = seed;
+    }
+
+    /**
+     * Random
+     * This method randomizes each node on the board, each node is alive with
+     * the parameter probability.
+     *
+     * @param random     the source of randomness, seeded for repeatable boards
+     * @param density    the probability of a node being alive
+     */
+    public void random(Random random, double density) {
+        seed = 0;
         for(int i = 0; i < rows; i++) {
             for(int j = 0; j < columns; j++) {
-                if(random.nextBoolean()) {
-                    nodes[i][j].setState(true);
-                } else {
-                    nodes[i][j].setState(false);
-                }
+                grid.setState(i, j, random.nextDouble() < density);
             }
         }
+        resetHistory();
     }
 
     /**
@@ -75,103 +142,200 @@ public class GameBoard {
      * @param column        the column to start
      */
     public void preset(BrushType bt, boolean brushState, int row, int column) {
-        int[][] structure = bt.getStructure();
-        int structureRows = structure.length;
-        int structureColumns = structure[0].length;
-        Node node;
-
-        try {
-
-        } catch(Exception ex) {};
-        for(int i = 0; i < structureRows; i++){
-            for(int j = 0; j < structureColumns; j++) {
-                try {
-                    node = nodes[i + row][j + column];
-                    if(brushState) {
-                        if(structure[i][j] == 1 && !node.getState()) {
-                            node.setState(true);
-                        }
-                    } else {
-                        if(structure[i][j] == 1 && node.getState()) {
-                            node.setState(false);
-                        }
-                    }
-                } catch(Exception ex) {};
+        preset(bt.getPattern(), brushState, row, column);
+    }
+
+    /**
+     * Preset
+     * This method draws a pattern, a preset structure or one loaded from a file,
+     * see Pattern.orient() to turn it. The pattern is drawn a word of nodes at a
+     * time, so the cost follows the number of rows and not the number of nodes.
+     * 
+     * @param pattern       the structure to draw.
+     * @param brushState    true for paint, false for erase
+     * @param row           the row to start
+     * @param column        the column to start
+     */
+    public void preset(Pattern pattern, boolean brushState, int row, int column) {
+        int words = pattern.getWords();
+
+        // nodes that fall outside of the board are clipped
+        for(int i = Math.max(0, -row); i < pattern.getRows() && i + row < rows; i++) {
+            for(int k = 0; k < words; k++) {
+                long bits = pattern.getWord(i * words + k);
+                int j = column + (k << 6);
+                if(bits == 0 || j >= columns || j <= -64) {
+                    continue;
+                }
+                if(j < 0) {
+                    bits >>>= -j;
+                    j = 0;
+                }
+                if(columns - j < 64) {
+                    bits &= (1L << (columns - j)) - 1;
+                }
+
+                // only the nodes that change are set
+                long old = grid.getBits(i + row, j);
+                long flips = brushState ? bits & ~old : bits & old;
+                if(flips != 0) {
+                    grid.setBits(i + row, j, flips, brushState);
+                }
             }
         }
+        resetHistory();
+    }
+
+    /**
+     * Load
+     * This method clears the board and streams the parameter pattern file into
+     * it, the first node of the pattern is placed at (row, column).
+     *
+     * @param file       the pattern file, see PatternReader
+     * @param row        the row to start
+     * @param column     the column to start
+     * @return String    the rulestring of the file, null if it has none.
+     */
+    public String load(File file, int row, int column) throws IOException {
+        clear();
+        return PatternReader.load(file, grid, row, column);
     }
 
     /**
      * Next
-     * This method generates the next iteration of the game.
+     * This method generates the next iteration of the game. The hash of each
+     * generation is compared against the recent generations, if it has been
+     * seen before the board has entered a cycle, see getPeriod(). The
+     * generation is measured when a flight recording or the metrics
+     * registry asks for it, see GenerationEvent and Metrics, otherwise
+     * nothing is allocated and the population is counted again when the
+     * generations are next measured.
      * 
-     * @return boolean    false if the game has halted, true if it has.
+     * @return boolean    true if the game has halted, false if it has not.
      */
     public boolean next() {
+        if(!GenerationEvent.TYPE.isEnabled() && !Metrics.getMetrics().isEnabled()) {
+            population = -1;
+            return step();
+        }
+        return measure(new GenerationEvent());
+    }
 
-        int sum;
-        int numChanges = 0;    // used to check if the game has halted
-
-        // create new temporary board that is a clone of the game board
-        Node[][] tmp = new Node[rows][columns];
+    /**
+     * Measure
+     * This method steps the game, timing the step and counting the births,
+     * deaths and bytes allocated. The population is counted once and then
+     * followed by the births and deaths of each generation.
+     *
+     * @param event       the flight recorder event of the generation
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    private boolean measure(GenerationEvent event) {
+        if(population < 0) {
+            population = grid.population();
+        }
+        long allocated = Metrics.allocatedBytes();
+        long start = System.nanoTime();
+        event.begin();
+        boolean halted = step();
+        event.end();
+        long time = System.nanoTime() - start;
+        allocated = Metrics.allocatedBytes() - allocated;
+        population += grid.getBirths() - grid.getDeaths();
 
-        // iterate through each node on the game board.
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
+        if(event.shouldCommit()) {
+            event.generation = generation;
+            event.births = grid.getBirths();
+            event.deaths = grid.getDeaths();
+            event.population = population;
+            event.evaluated = grid.getEvaluated();
+            event.allocated = allocated;
+            event.commit();
+        }
+        Metrics metrics = Metrics.getMetrics();
+        metrics.record(Metrics.STEP, time);
+        metrics.record(Metrics.BIRTHS, grid.getBirths());
+        metrics.record(Metrics.DEATHS, grid.getDeaths());
+        metrics.record(Metrics.POPULATION, population);
+        metrics.record(Metrics.EVALUATED, grid.getEvaluated());
+        metrics.record(Metrics.ALLOCATED, allocated);
+        return halted;
+    }
 
-                // replicate original gameboard node
-                tmp[i][j] = new Node(new int[] {i, j});
-                tmp[i][j].setState(nodes[i][j].getState());
-                
-                // define the sum and the points to check around the node
-                sum = 0;
-                int[][] points = {
-                    {i - 1, j - 1}, 
-                    {i - 1, j}, 
-                    {i - 1, j + 1}, 
-                    {i, j + 1}, 
-                    {i + 1, j + 1}, 
-                    {i + 1, j}, 
-                    {i + 1, j - 1}, 
-                    {i, j - 1} 
-                };
-
-                // determine the number of alive neighbours around the node 
-                for(int k = 0; k < points.length; k++) {
-                    try {
-                        if(nodes[points[k][0]][points[k][1]].getState()) {
-                            sum++;
-                        }
-                    } catch(Exception ex) {
-                        continue;
-                    }   
-                }
+    /**
+     * Step
+     * This method steps the grid a generation and checks it for a cycle, the
+     * generation is recorded by the timeline if there is one.
+     */
+    private boolean step() {
+        if(historySize == 0) {
+            record();
+            if(timeline != null) {
+                timeline.record(grid, generation);
+            }
+        }
+        boolean halted = grid.next();
+        generation++;
+        if(timeline != null) {
+            timeline.record(grid, generation);
+        }
 
-                // determine action depending on the rules of the game
-                if(nodes[i][j].getState()) {          // if the node is alive
-                    if(sum < 2 || sum > 3) {          // sum < 2, dies of loneliness
-                        tmp[i][j].setState(false);    // sum > 3, dies of overcrowding
-                        numChanges++;
-                    }
-                } else {                              // if the node is dead
-                    if(sum == 3) {                    // sum == 3, lives due to repopulation
-                        tmp[i][j].setState(true);  
-                        numChanges++;
-                    }
+        if(period == 0) {
+            long hash = grid.getHash();
+            for(int k = 0; k < historySize; k++) {
+                if(history[k] == hash) {
+                    cycleStart = Math.max(cycleStart, historyGenerations[k]);
                 }
             }
-        }
-        
-        // overwrite the original values
-        for(int i = 0; i < rows; i++) {
-            for(int j = 0; j < columns; j++) {
-                nodes[i][j].setState(tmp[i][j].getState());
+            if(cycleStart >= 0) {
+                period = generation - cycleStart;
             }
+            record();
         }
+        return halted;
+    }
 
-        if(numChanges == 0) {
-            return true;
+    /**
+     * Seek
+     * This method rewinds or fast forwards the board to a generation recorded by
+     * the timeline, see setTimeline(). Stepping on from it replays the recorded
+     * generations, unless the board is edited first.
+     *
+     * @param generation    the generation to seek to
+     * @return boolean      true if the board is at the generation, false if it was not recorded.
+     */
+    public boolean seek(long generation) {
+        if(timeline == null || !timeline.restore(grid, generation)) {
+            return false;
         }
-        return false;
+        this.generation = generation;
+        resetHistory();
+        return true;
+    }
+
+    /**
+     * Record
+     * This method adds the hash of the current generation to the history,
+     * overwriting the oldest generation once the history is full.
+     */
+    private void record() {
+        history[historyNext] = grid.getHash();
+        historyGenerations[historyNext] = generation;
+        historyNext = (historyNext + 1) % history.length;
+        historySize = Math.min(historySize + 1, history.length);
+    }
+
+    /**
+     * ResetHistory
+     * This method forgets the recent generations, used when the board is
+     * edited so earlier generations no longer lead to the current one. The
+     * population is counted again when next measured.
+     */
+    private void resetHistory() {
+        population = -1;
+        historySize = 0;
+        historyNext = 0;
+        period = 0;
+        cycleStart = -1;
     }
 }
@@ -0,0 +1,47 @@
+/**
+ * @class GenerationEvent
+ * @description This class defines the flight recorder event committed for each
+ * generation stepped by a gameboard, see GameBoard.next(). The event spans the
+ * step so its duration is the step time. The events are recorded by starting the
+ * application with a recording, java -XX:StartFlightRecording:filename=life.jfr Run
+ * The event is only created while a recording has it enabled, see TYPE.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("life.Generation")
+@Label("Generation")
+@Category("Game of Life")
+@Description("A generation stepped by a gameboard")
+public class GenerationEvent extends Event {
+
+    // Fields
+    static final EventType TYPE = EventType.getEventType(GenerationEvent.class);
+
+    @Label("Generation")
+    long generation;
+
+    @Label("Births")
+    long births;
+
+    @Label("Deaths")
+    long deaths;
+
+    @Label("Population")
+    long population;
+
+    @Label("Nodes Evaluated")
+    long evaluated;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
@@ -0,0 +1,223 @@
+/**
+ * @interface Grid
+ * @description This interface defines the logical state of a gameboard, a plain
+ * grid of alive or dead nodes that can be stepped to the next iteration. It has
+ * no dependency on AWT or Swing so boards can be created and run headless.
+ * @author Damon Greenhalgh
+ */
+
+public interface Grid {
+
+    // Accessors/Mutators
+    public int getRows();
+    public int getColumns();
+    public boolean getState(int i, int j);
+    public void setState(int i, int j, boolean state);
+    public Rule getRule();
+
+    /**
+     * SetRule
+     * This method sets the rule used to generate the next iterations. Nodes in
+     * states the new rule does not have are made dead.
+     *
+     * @param rule    the rule of the game
+     */
+    public void setRule(Rule rule);
+
+    /**
+     * GetTopology
+     * This method returns how the edges of the grid are joined, grids that do
+     * not join their edges have dead edges.
+     *
+     * @return TopologyType    the topology of the grid.
+     */
+    public default TopologyType getTopology() {
+        return TopologyType.DEAD;
+    }
+
+    /**
+     * SetTopology
+     * This method sets how the edges of the grid are joined. Grids that do not
+     * join their edges only accept dead edges, other topologies are rejected
+     * with an IllegalArgumentException.
+     *
+     * @param topology    the topology of the grid
+     */
+    public default void setTopology(TopologyType topology) {
+        if(topology != TopologyType.DEAD) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " only has dead edges, not " + topology);
+        }
+    }
+
+    /**
+     * GetValue
+     * This method returns the state of a node under a generations rule, 0 for
+     * dead, 1 for alive and 2 and up for dying, see Rule.
+     *
+     * @param i         the row of the node
+     * @param j         the column of the node
+     * @return int      the state of the node.
+     */
+    public default int getValue(int i, int j) {
+        return getState(i, j) ? 1 : 0;
+    }
+
+    /**
+     * SetValue
+     * This method sets the state of a node under a generations rule, see getValue().
+     *
+     * @param i         the row of the node
+     * @param j         the column of the node
+     * @param value     the state of the node, less than the number of states of the rule
+     */
+    public default void setValue(int i, int j, int value) {
+        setState(i, j, value == 1);
+    }
+
+    /**
+     * SetRun
+     * This method sets the state of a run of nodes along row i, from column j
+     * to j + length - 1. Grids with packed nodes write the run a word at a time.
+     *
+     * @param i         the row of the run
+     * @param j         the first column of the run
+     * @param length    the number of nodes in the run
+     * @param state     the state to set
+     */
+    public default void setRun(int i, int j, int length, boolean state) {
+        for(int n = 0; n < length; n++) {
+            setState(i, j + n, state);
+        }
+    }
+
+    /**
+     * GetBits
+     * This method returns the state of up to 64 nodes along row i as the bits
+     * of a word, bit n is the node at column j + n. Nodes past the last column
+     * are dead.
+     *
+     * @param i         the row of the nodes
+     * @param j         the column of the node at bit 0
+     * @return long     the states of the nodes.
+     */
+    public default long getBits(int i, int j) {
+        long bits = 0;
+        for(int n = 0; n < 64 && j + n < getColumns(); n++) {
+            bits |= getState(i, j + n) ? 1L << n : 0;
+        }
+        return bits;
+    }
+
+    /**
+     * SetBits
+     * This method sets the state of the nodes along row i at column j + n for
+     * each set bit n of the mask, the nodes must be on the grid. Grids with
+     * packed nodes write them a word at a time.
+     *
+     * @param i         the row of the nodes
+     * @param j         the column of the node at bit 0
+     * @param mask      the nodes to set
+     * @param state     the state to set
+     */
+    public default void setBits(int i, int j, long mask, boolean state) {
+        for(; mask != 0; mask &= mask - 1) {
+            setState(i, j + Long.numberOfTrailingZeros(mask), state);
+        }
+    }
+
+    /**
+     * GetHash
+     * This method returns the zobrist hash of the grid, the xor of the keys of
+     * every node that is not dead, see key(long, int). It is updated
+     * incrementally as nodes change.
+     *
+     * @return long    the hash of the grid.
+     */
+    public long getHash();
+
+    /**
+     * Key
+     * This method returns the zobrist key of the node at the parameter index,
+     * i * columns + j. Keys are mixed from the index so no table is stored.
+     *
+     * @param index    the index of the node
+     * @return long    the key of the node.
+     */
+    public static long key(long index) {
+        long z = index * 0x9E3779B97F4A7C15L + 0x632BE59BD9B4E019L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Key
+     * This method returns the zobrist key of the node at the parameter index in
+     * the parameter state, dead nodes have no key and alive nodes the key above.
+     *
+     * @param index    the index of the node
+     * @param state    the state of the node
+     * @return long    the key of the node in the state.
+     */
+    public static long key(long index, int state) {
+        return state == 0 ? 0 : state == 1 ? key(index) : key(index ^ ((long) state << 48));
+    }
+
+    /**
+     * GetBirths
+     * This method returns the number of nodes that became alive in the last iteration.
+     *
+     * @return long    the number of births.
+     */
+    public long getBirths();
+
+    /**
+     * GetDeaths
+     * This method returns the number of alive nodes that stopped being alive in
+     * the last iteration.
+     *
+     * @return long    the number of deaths.
+     */
+    public long getDeaths();
+
+    /**
+     * GetEvaluated
+     * This method returns the number of nodes evaluated by the last iteration,
+     * every node unless the grid skips the nodes that can not change.
+     *
+     * @return long    the number of nodes evaluated.
+     */
+    public default long getEvaluated() {
+        return (long) getRows() * getColumns();
+    }
+
+    /**
+     * Population
+     * This method counts the number of alive nodes on the grid.
+     *
+     * @return long    the number of alive nodes.
+     */
+    public default long population() {
+        long sum = 0;
+        for(int i = 0; i < getRows(); i++) {
+            for(int j = 0; j < getColumns(); j++) {
+                sum += getState(i, j) ? 1 : 0;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Clear
+     * This method clears the grid, sets all nodes to dead.
+     */
+    public void clear();
+
+    /**
+     * Next
+     * This method generates the next iteration of the game.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    public boolean next();
+}
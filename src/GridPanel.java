@@ -0,0 +1,266 @@
+/**
+ * @class GridPanel
+ * @description This class defines the display component for the gameboard. The
+ * whole board is drawn in a single component from a backing image with one pixel
+ * per node, which is scaled up to the size of the panel when painted. The panel
+ * draws snapshots of the board, only the nodes that differ from the snapshot
+ * on screen are redrawn.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import javax.swing.JPanel;
+
+public class GridPanel extends JPanel {
+
+    // Fields
+    private static final long serialVersionUID = 1L;
+    private Snapshot snapshot;   // the snapshot on screen
+    private int[] changed;       // nodes that differ between two snapshots
+    private BufferedImage image;
+    private int[] pixels;        // backing raster of the image, one pixel per node
+    private int[] aliveColors;   // color of each node when alive, shared with the color scanner
+    private int deadColor;
+    private Color lineColor;
+    private int rows, columns;
+    private boolean[] dirty;     // tiles of the board with a changed node
+    private int tileRows, tileColumns;
+    private ArrayList<Rectangle> regions = new ArrayList<Rectangle>();
+    private String[] hud;        // lines of the overlay, null when hidden
+    private Rectangle hudBounds = new Rectangle();
+    private static final int TILE = 16, MAX_REGIONS = 32;
+
+    /**
+     * Constructor
+     * Generates the display for boards of the parameter snapshot's size.
+     */
+    public GridPanel(Snapshot snapshot) {
+        this.snapshot = snapshot;
+        rows = snapshot.getRows();
+        columns = snapshot.getColumns();
+        changed = new int[Math.max(1024, rows * columns / 8)];
+        image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        tileRows = (rows + TILE - 1) / TILE;
+        tileColumns = (columns + TILE - 1) / TILE;
+        dirty = new boolean[tileRows * tileColumns];
+        setOpaque(true);
+    }
+
+    /**
+     * SetTheme
+     * This method sets the colors used to draw the nodes, see ColorScanner.scan().
+     *
+     * @param colorMap     the ARGB color of each alive node, i * columns + j
+     * @param deadColor    the color of dead nodes
+     * @param lineColor    the color of the lines between nodes
+     */
+    public void setTheme(int[] colorMap, Color deadColor, Color lineColor) {
+        aliveColors = colorMap;
+        this.deadColor = deadColor.getRGB();
+        this.lineColor = lineColor;
+        setBackground(lineColor);
+        update();
+    }
+
+    /**
+     * SetHud
+     * This method sets the lines of text overlaid in the top left corner of the
+     * panel, such as the rates and timings of the simulation.
+     *
+     * @param lines    the lines of the overlay, null to hide it
+     */
+    public void setHud(String... lines) {
+        hud = lines;
+        repaint(hudBounds);
+        if(hud != null) {
+            FontMetrics metrics = getFontMetrics(getFont());
+            int width = 0;
+            for(String line : hud) {
+                width = Math.max(width, metrics.stringWidth(line));
+            }
+            hudBounds = new Rectangle(4, 4, width + 12, hud.length * metrics.getHeight() + 8);
+            repaint(hudBounds);
+        }
+    }
+
+    /**
+     * Show
+     * This method draws the parameter snapshot. The words of the snapshot are
+     * compared against the snapshot on screen and only the nodes that differ
+     * are redrawn, unless too many differ to list.
+     *
+     * @param next    the snapshot to draw
+     * @return int    the number of nodes redrawn
+     */
+    public int show(Snapshot next) {
+        Snapshot previous = snapshot;
+        snapshot = next;
+
+        int count = 0, words = next.getWords();
+        for(int i = 0; i < rows && count >= 0; i++) {
+            for(int k = 0; k < words && count >= 0; k++) {
+                long bits = previous.getWord(i * words + k) ^ next.getWord(i * words + k);
+                for(; bits != 0; bits &= bits - 1) {
+                    if(count == changed.length) {
+                        count = -1;
+                        break;
+                    }
+                    changed[count++] = i * columns + (k << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+        }
+
+        if(count < 0) {
+            update();
+            return rows * columns;
+        }
+        update(changed, count);
+        return count;
+    }
+
+    /**
+     * Update
+     * This method redraws every node into the backing image and schedules a repaint.
+     */
+    public void update() {
+        for(int i = 0; i < rows; i++) {
+            int row = i * columns;
+            for(int j = 0; j < columns; j++) {
+                pixels[row + j] = snapshot.getState(i, j) ? aliveColors[row + j] : deadColor;
+            }
+        }
+        repaint();
+    }
+
+    /**
+     * Update
+     * This method redraws only the parameter nodes into the backing image. The
+     * tiles of the board holding them are coalesced into dirty rectangles, runs
+     * of dirty tiles in the same row of tiles, and only those are repainted.
+     *
+     * @param changed    the indices, i * columns + j, of the changed nodes
+     * @param count      the number of indices in changed
+     */
+    public void update(int[] changed, int count) {
+        for(int n = 0; n < count; n++) {
+            int index = changed[n];
+            int i = index / columns, j = index % columns;
+            pixels[index] = snapshot.getState(i, j) ? aliveColors[index] : deadColor;
+            dirty[(i / TILE) * tileColumns + j / TILE] = true;
+        }
+
+        // coalesce each run of dirty tiles into a rectangle of the panel
+        regions.clear();
+        for(int ti = 0; ti < tileRows; ti++) {
+            for(int tj = 0; tj < tileColumns; tj++) {
+                if(!dirty[ti * tileColumns + tj]) {
+                    continue;
+                }
+                int start = tj;
+                while(tj < tileColumns && dirty[ti * tileColumns + tj]) {
+                    dirty[ti * tileColumns + tj] = false;
+                    tj++;
+                }
+                int x = columnX(start * TILE), y = rowY(ti * TILE);
+                regions.add(new Rectangle(x, y,
+                    columnX(Math.min(columns, tj * TILE)) - x + 1, rowY(Math.min(rows, (ti + 1) * TILE)) - y + 1));
+            }
+        }
+
+        if(regions.size() > MAX_REGIONS || !isShowing()) {
+            Rectangle bounds = null;
+            for(Rectangle region : regions) {
+                bounds = bounds == null ? region : bounds.union(region);
+            }
+            if(bounds != null) {
+                repaint(bounds);
+            }
+        } else {
+            for(Rectangle region : regions) {
+                paintImmediately(region);
+            }
+        }
+    }
+
+    /**
+     * RowY
+     * This method maps a row boundary of the board to a y coordinate of the panel.
+     */
+    private int rowY(int i) {
+        return (int) ((long) i * getHeight() / rows);
+    }
+
+    /**
+     * ColumnX
+     * This method maps a column boundary of the board to an x coordinate of the panel.
+     */
+    private int columnX(int j) {
+        return (int) ((long) j * getWidth() / columns);
+    }
+
+    /**
+     * RowAt
+     * This method maps a y coordinate of the panel to the row of the node under it.
+     */
+    public int rowAt(int y) {
+        return Math.min(rows - 1, Math.max(0, (int) ((long) y * rows / Math.max(1, getHeight()))));
+    }
+
+    /**
+     * ColumnAt
+     * This method maps an x coordinate of the panel to the column of the node under it.
+     */
+    public int columnAt(int x) {
+        return Math.min(columns - 1, Math.max(0, (int) ((long) x * columns / Math.max(1, getWidth()))));
+    }
+
+    /**
+     * PaintComponent
+     * This method draws the nodes of the backing image within the clip scaled
+     * to the panel, with lines between the nodes when they are large enough to see.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int width = getWidth(), height = getHeight();
+        Rectangle clip = g.getClipBounds();
+        if(clip == null) {
+            clip = new Rectangle(0, 0, width, height);
+        }
+
+        // the nodes under the clip
+        int i0 = rowAt(clip.y), i1 = rowAt(clip.y + clip.height - 1) + 1;
+        int j0 = columnAt(clip.x), j1 = columnAt(clip.x + clip.width - 1) + 1;
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(image, columnX(j0), rowY(i0), columnX(j1), rowY(i1), j0, i0, j1, i1, null);
+
+        if(width >= columns * 6 && height >= rows * 6) {
+            g2.setColor(lineColor);
+            for(int i = i0; i <= i1; i++) {
+                g2.drawLine(columnX(j0), rowY(i), columnX(j1), rowY(i));
+            }
+            for(int j = j0; j <= j1; j++) {
+                g2.drawLine(columnX(j), rowY(i0), columnX(j), rowY(i1));
+            }
+        }
+
+        // the overlay is drawn over the nodes whenever they are repainted beneath it
+        String[] lines = hud;
+        if(lines != null && clip.intersects(hudBounds)) {
+            FontMetrics metrics = g2.getFontMetrics();
+            g2.setColor(new Color(0, 0, 0, 160));
+            g2.fillRect(hudBounds.x, hudBounds.y, hudBounds.width, hudBounds.height);
+            g2.setColor(Color.WHITE);
+            for(int n = 0; n < lines.length; n++) {
+                g2.drawString(lines[n], hudBounds.x + 6, hudBounds.y + 4 + n * metrics.getHeight() + metrics.getAscent());
+            }
+        }
+    }
+}
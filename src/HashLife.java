@@ -0,0 +1,461 @@
+/**
+ * @class HashLife
+ * @description This class defines a HashLife universe. The universe is stored as
+ * a quadtree of hash-consed nodes, identical regions of the universe share a
+ * single node, and the result of advancing a node is memoised so repeated
+ * structures are only ever evolved once. This allows patterns to be advanced
+ * by 2^k generations at a time.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.Arrays;
+
+public class HashLife {
+
+    // Fields
+    private QuadNode root;
+    private long originRow, originColumn;    // universe coordinates of the top left of the root
+    private long generation;
+    private QuadNode[] table;                // canonical nodes, chained by QuadNode.next
+    private int size, maxNodes;
+    private QuadNode[] cacheKeys, cacheValues;
+    private int[] cacheSteps;
+    private QuadNode[] empty = new QuadNode[64];
+    private final QuadNode dead = new QuadNode(0), alive = new QuadNode(1);
+
+    /**
+     * Constructor
+     * Generates an empty universe.
+     */
+    public HashLife() {
+        this(1 << 22, 1 << 20);
+    }
+
+    /**
+     * Constructor
+     * Generates an empty universe with a bounded number of nodes and results.
+     *
+     * @param maxNodes     the number of canonical nodes kept before unreachable nodes are collected
+     * @param cacheSize    the number of memoised results, rounded up to a power of two
+     */
+    public HashLife(int maxNodes, int cacheSize) {
+        this.maxNodes = maxNodes;
+        int capacity = Integer.highestOneBit(Math.max(cacheSize - 1, 1)) << 1;
+        cacheKeys = new QuadNode[capacity];
+        cacheValues = new QuadNode[capacity];
+        cacheSteps = new int[capacity];
+        table = new QuadNode[1 << 16];
+        empty[0] = dead;
+        root = empty(3);
+    }
+
+    // Accessors/Mutators
+    public long getGeneration() { return generation; }
+    public long getPopulation() { return root.population; }
+    public int getNodeCount() { return size; }
+
+    /**
+     * Load
+     * This method replaces the universe with the nodes of the parameter grid,
+     * node (i, j) of the grid is placed at universe coordinate (top + i, left + j).
+     *
+     * @param grid    the grid to load
+     * @param top     the universe row of the first row of the grid
+     * @param left    the universe column of the first column of the grid
+     */
+    public void load(Grid grid, long top, long left) {
+        int level = 3;
+        while((1L << level) < Math.max(grid.getRows(), grid.getColumns())) {
+            level++;
+        }
+        root = build(grid, level, 0, 0);
+        originRow = top;
+        originColumn = left;
+        generation = 0;
+    }
+
+    /**
+     * Read
+     * This method copies the region of the universe starting at (top, left) into
+     * the parameter grid, the grid is cleared first.
+     *
+     * @param grid    the grid to write the viewport into
+     * @param top     the universe row of the first row of the grid
+     * @param left    the universe column of the first column of the grid
+     */
+    public void read(Grid grid, long top, long left) {
+        grid.clear();
+        read(grid, root, originRow - top, originColumn - left);
+    }
+
+    /**
+     * GetState
+     * This method returns the state of the node at the parameter universe coordinate.
+     */
+    public boolean getState(long row, long column) {
+        long r = row - originRow, c = column - originColumn;
+        long width = 1L << root.level;
+        if(r < 0 || c < 0 || r >= width || c >= width) {
+            return false;
+        }
+        QuadNode node = root;
+        while(node.level > 0) {
+            long half = 1L << (node.level - 1);
+            if(r < half) {
+                node = c < half ? node.nw : node.ne;
+            } else {
+                node = c < half ? node.sw : node.se;
+            }
+            r &= half - 1;
+            c &= half - 1;
+        }
+        return node == alive;
+    }
+
+    /**
+     * Step
+     * This method advances the universe by 2^k generations.
+     *
+     * @param k    the base 2 logarithm of the number of generations
+     */
+    public void step(int k) {
+        if(k < 0 || k > 60) {
+            throw new IllegalArgumentException("k must be between 0 and 60: " + k);
+        }
+        if(size > maxNodes) {
+            collect();
+        }
+
+        // the pattern must lie in the centre quarter of the root so it cannot
+        // grow out of the result in 2^k generations
+        while(root.level < k + 2 || !centred(root)) {
+            expand();
+        }
+        expand();
+
+        long quarter = 1L << (root.level - 2);
+        root = result(root, k);
+        originRow += quarter;
+        originColumn += quarter;
+        generation += 1L << k;
+    }
+
+    /**
+     * Advance
+     * This method advances the universe by the parameter number of generations
+     * as a sum of power of two steps.
+     *
+     * @param generations    the number of generations to advance
+     */
+    public void advance(long generations) {
+        for(int k = 0; generations != 0; k++, generations >>>= 1) {
+            if((generations & 1) != 0) {
+                step(k);
+            }
+        }
+    }
+
+    /**
+     * Result
+     * This method returns the centre of the parameter node, half its width,
+     * advanced by 2^k generations where k is at most node.level - 2.
+     */
+    private QuadNode result(QuadNode node, int k) {
+        if(node.population == 0) {
+            return empty(node.level - 1);
+        }
+        int slot = (node.hash ^ (k * 0x9E3779B9)) & (cacheKeys.length - 1);
+        if(cacheKeys[slot] == node && cacheSteps[slot] == k) {
+            return cacheValues[slot];
+        }
+
+        QuadNode next;
+        if(node.level == 2) {
+            next = base(node);
+        } else {
+            // the nine overlapping subnodes of half width
+            QuadNode n00 = node.nw;
+            QuadNode n01 = node(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw);
+            QuadNode n02 = node.ne;
+            QuadNode n10 = node(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne);
+            QuadNode n11 = node(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+            QuadNode n12 = node(node.ne.sw, node.ne.se, node.se.nw, node.se.ne);
+            QuadNode n20 = node.sw;
+            QuadNode n21 = node(node.sw.ne, node.se.nw, node.sw.se, node.se.sw);
+            QuadNode n22 = node.se;
+
+            QuadNode r00, r01, r02, r10, r11, r12, r20, r21, r22;
+            if(k == node.level - 2) {
+                // full speed, the first half of the generations
+                r00 = result(n00, k - 1); r01 = result(n01, k - 1); r02 = result(n02, k - 1);
+                r10 = result(n10, k - 1); r11 = result(n11, k - 1); r12 = result(n12, k - 1);
+                r20 = result(n20, k - 1); r21 = result(n21, k - 1); r22 = result(n22, k - 1);
+            } else {
+                // reduced speed, no generations are spent here
+                r00 = centre(n00); r01 = centre(n01); r02 = centre(n02);
+                r10 = centre(n10); r11 = centre(n11); r12 = centre(n12);
+                r20 = centre(n20); r21 = centre(n21); r22 = centre(n22);
+            }
+
+            int remaining = k == node.level - 2 ? k - 1 : k;
+            next = node(
+                result(node(r00, r01, r10, r11), remaining),
+                result(node(r01, r02, r11, r12), remaining),
+                result(node(r10, r11, r20, r21), remaining),
+                result(node(r11, r12, r21, r22), remaining));
+        }
+
+        cacheKeys[slot] = node;
+        cacheSteps[slot] = k;
+        cacheValues[slot] = next;
+        return next;
+    }
+
+    /**
+     * Base
+     * This method evolves the centre 2x2 of a 4x4 node by a single generation.
+     */
+    private QuadNode base(QuadNode node) {
+        int bits = 0;
+        for(int i = 0; i < 4; i++) {
+            for(int j = 0; j < 4; j++) {
+                QuadNode quadrant = i < 2 ? (j < 2 ? node.nw : node.ne) : (j < 2 ? node.sw : node.se);
+                QuadNode leaf = (i & 1) == 0 ? ((j & 1) == 0 ? quadrant.nw : quadrant.ne)
+                                             : ((j & 1) == 0 ? quadrant.sw : quadrant.se);
+                if(leaf == alive) {
+                    bits |= 1 << (i * 4 + j);
+                }
+            }
+        }
+        return node(evolve(bits, 1, 1), evolve(bits, 1, 2), evolve(bits, 2, 1), evolve(bits, 2, 2));
+    }
+
+    /**
+     * Evolve
+     * This method applies the rules of the game to node (i, j) of a 4x4 block of bits.
+     */
+    private QuadNode evolve(int bits, int i, int j) {
+        int sum = 0;
+        for(int di = -1; di <= 1; di++) {
+            for(int dj = -1; dj <= 1; dj++) {
+                if((di != 0 || dj != 0) && (bits & (1 << ((i + di) * 4 + j + dj))) != 0) {
+                    sum++;
+                }
+            }
+        }
+        boolean state = (bits & (1 << (i * 4 + j))) != 0;
+        return sum == 3 || (state && sum == 2) ? alive : dead;
+    }
+
+    /**
+     * Centre
+     * This method returns the centre of the parameter node, half its width.
+     */
+    private QuadNode centre(QuadNode node) {
+        return node(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+    }
+
+    /**
+     * Centred
+     * This method checks that every alive node lies within the centre of the
+     * parameter node.
+     */
+    private boolean centred(QuadNode node) {
+        return node.nw.population == node.nw.se.population
+            && node.ne.population == node.ne.sw.population
+            && node.sw.population == node.sw.ne.population
+            && node.se.population == node.se.nw.population;
+    }
+
+    /**
+     * Expand
+     * This method doubles the width of the root, keeping the universe centred.
+     */
+    private void expand() {
+        QuadNode e = empty(root.level - 1);
+        long half = 1L << (root.level - 1);
+        root = node(
+            node(e, e, e, root.nw),
+            node(e, e, root.ne, e),
+            node(e, root.sw, e, e),
+            node(root.se, e, e, e));
+        originRow -= half;
+        originColumn -= half;
+    }
+
+    /**
+     * Empty
+     * This method returns the canonical empty node of the parameter level.
+     */
+    private QuadNode empty(int level) {
+        if(empty[level] == null) {
+            QuadNode e = empty(level - 1);
+            empty[level] = node(e, e, e, e);
+        }
+        return empty[level];
+    }
+
+    /**
+     * Node
+     * This method returns the canonical node with the parameter children,
+     * creating it if it does not exist yet.
+     */
+    private QuadNode node(QuadNode nw, QuadNode ne, QuadNode sw, QuadNode se) {
+        int hash = hash(nw, ne, sw, se);
+        int index = hash & (table.length - 1);
+        for(QuadNode node = table[index]; node != null; node = node.next) {
+            if(node.nw == nw && node.ne == ne && node.sw == sw && node.se == se) {
+                return node;
+            }
+        }
+
+        QuadNode node = new QuadNode(nw, ne, sw, se, hash);
+        node.next = table[index];
+        table[index] = node;
+        if(++size > table.length * 3 / 4) {
+            resize(table.length * 2);
+        }
+        return node;
+    }
+
+    /**
+     * Hash
+     * This method combines the hashes of four children.
+     */
+    private static int hash(QuadNode nw, QuadNode ne, QuadNode sw, QuadNode se) {
+        int h = nw.hash;
+        h = h * 0x9E3779B1 + ne.hash;
+        h = h * 0x9E3779B1 + sw.hash;
+        h = h * 0x9E3779B1 + se.hash;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Resize
+     * This method rehashes every canonical node into a table of the parameter length.
+     */
+    private void resize(int length) {
+        QuadNode[] old = table;
+        table = new QuadNode[length];
+        for(QuadNode head : old) {
+            for(QuadNode node = head; node != null; ) {
+                QuadNode next = node.next;
+                int index = node.hash & (length - 1);
+                node.next = table[index];
+                table[index] = node;
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Collect
+     * This method drops every node that is no longer reachable from the root, along
+     * with every memoised result.
+     */
+    private void collect() {
+        table = new QuadNode[table.length];
+        size = 0;
+        Arrays.fill(cacheKeys, null);
+        Arrays.fill(cacheValues, null);
+        for(int level = 1; level < empty.length && empty[level] != null; level++) {
+            keep(empty[level]);
+        }
+        keep(root);
+    }
+
+    /**
+     * Keep
+     * This method re-inserts the parameter node and its descendants into the table.
+     */
+    private void keep(QuadNode node) {
+        if(node.level == 0) {
+            return;
+        }
+        int index = node.hash & (table.length - 1);
+        for(QuadNode other = table[index]; other != null; other = other.next) {
+            if(other == node) {
+                return;
+            }
+        }
+        keep(node.nw);
+        keep(node.ne);
+        keep(node.sw);
+        keep(node.se);
+        node.next = table[index];
+        table[index] = node;
+        size++;
+    }
+
+    /**
+     * Build
+     * This method builds the node of the parameter level covering the square of
+     * the grid whose top left node is (row, column).
+     */
+    private QuadNode build(Grid grid, int level, int row, int column) {
+        if(row >= grid.getRows() || column >= grid.getColumns()) {
+            return empty(level);
+        }
+        if(level == 0) {
+            return grid.getState(row, column) ? alive : dead;
+        }
+        int half = 1 << (level - 1);
+        return node(
+            build(grid, level - 1, row, column),
+            build(grid, level - 1, row, column + half),
+            build(grid, level - 1, row + half, column),
+            build(grid, level - 1, row + half, column + half));
+    }
+
+    /**
+     * Read
+     * This method writes the alive nodes of the parameter node into the grid, the
+     * top left of the node is at (row, column) relative to the grid.
+     */
+    private void read(Grid grid, QuadNode node, long row, long column) {
+        long width = 1L << node.level;
+        if(node.population == 0 || row >= grid.getRows() || column >= grid.getColumns()
+                || row + width <= 0 || column + width <= 0) {
+            return;
+        }
+        if(node.level == 0) {
+            grid.setState((int) row, (int) column, true);
+            return;
+        }
+        long half = width >>> 1;
+        read(grid, node.nw, row, column);
+        read(grid, node.ne, row, column + half);
+        read(grid, node.sw, row + half, column);
+        read(grid, node.se, row + half, column + half);
+    }
+
+    /**
+     * QuadNode
+     * A node of the quadtree. A node of level n covers a square 2^n nodes wide,
+     * nodes of level 0 are single alive or dead nodes.
+     */
+    private static class QuadNode {
+        private final QuadNode nw, ne, sw, se;
+        private final int level, hash;
+        private final long population;
+        private QuadNode next;    // next node in the same bucket of the table
+
+        public QuadNode(int population) {
+            nw = ne = sw = se = null;
+            level = 0;
+            hash = population;
+            this.population = population;
+        }
+
+        public QuadNode(QuadNode nw, QuadNode ne, QuadNode sw, QuadNode se, int hash) {
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.hash = hash;
+            population = nw.population + ne.population + sw.population + se.population;
+        }
+    }
+}
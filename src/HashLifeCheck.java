@@ -0,0 +1,104 @@
+/**
+ * @class HashLifeCheck
+ * @description This class is used to check the HashLife engine against the
+ * gameboard. Random soups are placed in the middle of a board wide enough that
+ * nothing reaches its edges, then the board is stepped with GameBoard.next()
+ * while one universe is stepped a generation at a time and another is jumped
+ * straight to each generation from the start, see HashLife.advance(). The check
+ * fails, exiting with status 1, if either universe differs from the board.
+ *
+ * Usage: java HashLifeCheck [generations]
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.Locale;
+import java.util.Random;
+
+public class HashLifeCheck {
+
+    // Fields
+    private static final int SIZE = 512, SOUP = 32;    // width of the board and of the soup in its middle
+
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        boolean failed = false;
+        for(long seed = 1; seed <= 4; seed++) {
+            failed |= check(seed, generations);
+        }
+        if(failed) {
+            System.out.println("FAILED: hashlife differs from GameBoard.next()");
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    /**
+     * Check
+     * This method runs a soup on the gameboard and in two universes, comparing
+     * them every generation and at each jump.
+     *
+     * @return boolean    true if a universe differed from the board, false otherwise.
+     */
+    private static boolean check(long seed, int generations) {
+        GameBoard board = new GameBoard(SIZE, SIZE);
+        Random random = new Random(seed);
+        int corner = (SIZE - SOUP) / 2;
+        for(int i = 0; i < SOUP; i++) {
+            for(int j = 0; j < SOUP; j++) {
+                board.setState(corner + i, corner + j, random.nextBoolean());
+            }
+        }
+        HashLife stepped = new HashLife();
+        stepped.load(board.getGrid(), 0, 0);
+        BitBoard start = new BitBoard(SIZE, SIZE);
+        stepped.read(start, 0, 0);
+        BitBoard window = new BitBoard(SIZE, SIZE);
+
+        int mismatches = 0, jumps = 0;
+        for(int g = 1; g <= generations; g++) {
+            board.next();
+            stepped.step(0);
+            stepped.read(window, 0, 0);
+            if(!same(board.getGrid(), window) || stepped.getPopulation() != board.getGrid().population()) {
+                mismatches++;
+            }
+
+            // jumps of every power of two, and of a few numbers that are not
+            if(Long.bitCount(g) == 1 || g % 97 == 0 || g == generations) {
+                HashLife jumped = new HashLife();
+                jumped.load(start, 0, 0);
+                jumped.advance(g);
+                jumped.read(window, 0, 0);
+                if(!same(board.getGrid(), window) || jumped.getGeneration() != g) {
+                    mismatches++;
+                }
+                jumps++;
+            }
+        }
+
+        // a board whose edges were reached can not be compared with a universe
+        boolean edges = false;
+        for(int n = 0; n < SIZE; n++) {
+            edges |= board.getState(0, n) || board.getState(SIZE - 1, n) || board.getState(n, 0) || board.getState(n, SIZE - 1);
+        }
+        System.out.printf(Locale.ROOT, "seed %d: %d generations, %d jumps, %d mismatches%s%n",
+            seed, generations, jumps, mismatches, edges ? ", the soup reached the edge" : "");
+        return mismatches > 0 || edges;
+    }
+
+    /**
+     * Same
+     * This method compares two grids of the same size node for node.
+     */
+    private static boolean same(Grid a, Grid b) {
+        for(int i = 0; i < a.getRows(); i++) {
+            for(int j = 0; j < a.getColumns(); j += 64) {
+                if(a.getBits(i, j) != b.getBits(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
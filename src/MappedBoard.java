@@ -0,0 +1,470 @@
+/**
+ * @class MappedBoard
+ * @description This class defines a bit-packed board that is kept on disk rather
+ * than on the heap, for boards larger than memory. The board lives in a board
+ * file with every word stored, see BoardFile, and a second file of the same size
+ * receives the next iteration. Each iteration is a single sequential pass, the
+ * current file is read through memory mapped chunks into a sliding window of
+ * three rows, each row of the next iteration is written to the other file, and
+ * the files then swap roles. The heap holds only the window, a few rows of words,
+ * whatever the size of the board. Both files are mapped once when the board is
+ * opened and the mappings are kept for every pass, they are forced to the disk
+ * when the board is flushed. The hash is kept up to date from the nodes that
+ * change, as on the heap. Life-like rules with dead edges are supported.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MappedBoard implements Grid, Closeable {
+
+    // Fields
+    private File[] files = new File[2];              // the current iteration and the next
+    private RandomAccessFile[] rafs = new RandomAccessFile[2];
+    private BoardFile.Header[] headers = new BoardFile.Header[2];
+    private MappedByteBuffer[] tops = new MappedByteBuffer[2];        // the header of each file
+    private MappedByteBuffer[][] chunks = new MappedByteBuffer[2][];  // the words of each file, see BoardFile.map()
+    private int rows, columns, words;
+    private long lastMask;                           // valid bits of the last word in each row
+    private long births, deaths, population, hash;
+    private Rule rule;
+    private long[] above, row, below, next;          // sliding window of the current pass
+    private ByteBuffer word = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private static final int HEADER = 72;            // header length of new files, room for any life-like rulestring
+
+    /**
+     * Constructor
+     * Opens the board in the parameter board file, which must store every word,
+     * see BoardFile. The spare file is created, or resized if it is not the size
+     * of the board, to hold the next iteration.
+     *
+     * @param file     the board file holding the board
+     * @param spare    the file to write the next iteration to, overwritten
+     */
+    public MappedBoard(File file, File spare) throws IOException {
+        files[0] = file;
+        files[1] = spare;
+        rafs[0] = new RandomAccessFile(file, "rw");
+        try {
+            BoardFile.Header header = headers[0] = BoardFile.Header.read(rafs[0].getChannel(), file);
+            if(header.encoding != BoardFile.PACKED || header.topology != TopologyType.DEAD) {
+                throw new IOException(file + ": only packed boards with dead edges can be mapped");
+            }
+            try {
+                rule = Rule.parse(header.rule);
+            } catch(IllegalArgumentException e) {
+                throw new IOException(file + ": unsupported rule " + header.rule);
+            }
+            if(rule.getStates() > 2) {
+                throw new IOException(file + ": generations rules can not be mapped");
+            }
+            rows = header.rows;
+            columns = header.columns;
+            words = (columns + 63) >>> 6;
+            lastMask = columns % 64 == 0 ? -1L : (1L << (columns % 64)) - 1;
+            if(rafs[0].length() < header.length + 8L * rows * words) {
+                throw new IOException(file + ": the board is truncated");
+            }
+
+            // a spare of the right size is reused as it is, a mapped file can not be resized on every system
+            rafs[1] = new RandomAccessFile(spare, "rw");
+            if(rafs[1].length() != HEADER + 8L * rows * words) {
+                rafs[1].setLength(HEADER + 8L * rows * words);
+            }
+            headers[1] = new BoardFile.Header();
+            headers[1].length = HEADER;
+            for(int f = 0; f < 2; f++) {
+                long start = headers[f].length;
+                tops[f] = rafs[f].getChannel().map(MapMode.READ_WRITE, 0, start);
+                chunks[f] = BoardFile.map(rafs[f].getChannel(), start, start + 8L * rows * words);
+            }
+
+            above = new long[words];
+            row = new long[words];
+            below = new long[words];
+            next = new long[words];
+            scan();    // the hash of a file that was not flushed may be out of date
+        } catch(IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Create
+     * This method creates an empty board in the parameter file, and opens it.
+     * The board is written to a temporary file that then replaces the file, so
+     * a file that is still mapped is never resized.
+     *
+     * @param file           the board file to create, replaced
+     * @param spare          the file to write the next iteration to, overwritten
+     * @param rows           the number of rows
+     * @param columns        the number of columns
+     * @return MappedBoard   the board.
+     */
+    public static MappedBoard create(File file, File spare, int rows, int columns) throws IOException {
+        BoardFile.Header header = new BoardFile.Header();
+        header.rows = rows;
+        header.columns = columns;
+        header.length = HEADER;
+        File temp = File.createTempFile("." + file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            try(RandomAccessFile raf = new RandomAccessFile(temp, "rw")) {
+                raf.setLength(HEADER + 8L * rows * ((columns + 63) >>> 6));
+                header.write(raf.getChannel());
+            }
+            BoardFile.replace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        return new MappedBoard(file, spare);
+    }
+
+    // Accessors/Mutators
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public File getFile() { return files[0]; }
+    public long getGeneration() { return headers[0].generation; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getPopulation() { return population; }
+    public long getHash() { return hash; }
+    public long population() { return population; }
+    public Rule getRule() { return rule; }
+    public void setRule(Rule rule) {
+        if(rule.getStates() > 2) {
+            throw new IllegalArgumentException("generations rules can not be mapped: " + rule);
+        }
+        this.rule = rule;
+    }
+    public boolean getState(int i, int j) {
+        return (read(i, j) & (1L << j)) != 0;
+    }
+    public void setState(int i, int j, boolean state) {
+        long bits = read(i, j), bit = 1L << j;
+        if(((bits & bit) != 0) == state) {
+            return;
+        }
+        write(i, j, bits ^ bit);
+        hash ^= Grid.key((long) i * columns + j);
+        population += state ? 1 : -1;
+    }
+
+    /**
+     * SetRun
+     * This method sets the state of a run of nodes along row i a word at a time,
+     * reading and writing each word of the file the run covers once.
+     *
+     * @param i         the row of the run
+     * @param j         the first column of the run
+     * @param length    the number of nodes in the run
+     * @param state     the state to set
+     */
+    @Override
+    public void setRun(int i, int j, int length, boolean state) {
+        for(int end = j + length; j < end; ) {
+            int stop = Math.min(end, (j | 63) + 1);
+            long mask = (stop - j == 64 ? -1L : (1L << (stop - j)) - 1) << j;
+            long bits = read(i, j), changed = (state ? ~bits : bits) & mask;
+            if(changed != 0) {
+                write(i, j, bits ^ changed);
+                population += state ? Long.bitCount(changed) : -Long.bitCount(changed);
+                hash ^= keys((long) i * columns + (j & ~63), changed);
+            }
+            j = stop;
+        }
+    }
+
+    /**
+     * Clear
+     * This method clears the board, sets all nodes to dead.
+     */
+    @Override
+    public void clear() {
+        try {
+            BoardFile.Words out = words(0);
+            Arrays.fill(next, 0);
+            for(int i = 0; i < rows; i++) {
+                out.put(next, 0, words);
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        hash = 0;
+        population = 0;
+        headers[0].seed = 0;
+    }
+
+    /**
+     * Random
+     * This method randomizes each node on the board from the parameter seed in
+     * a single pass over the file, the same board as GameBoard.random().
+     *
+     * @param seed       the seed of the random fill
+     * @param density    the probability of a node being alive
+     */
+    public void random(long seed, double density) throws IOException {
+        Random random = new Random(seed);
+        BoardFile.Words out = words(0);
+        hash = 0;
+        population = 0;
+        for(int i = 0; i < rows; i++) {
+            for(int k = 0; k < words; k++) {
+                long bits = 0;
+                for(int b = 0; b < 64 && (k << 6) + b < columns; b++) {
+                    bits |= (random.nextDouble() < density ? 1L : 0L) << b;
+                }
+                next[k] = bits;
+                population += Long.bitCount(bits);
+                hash ^= keys((long) i * columns + (k << 6), bits);
+            }
+            out.put(next, 0, words);
+        }
+        headers[0].seed = seed;
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game in one pass over the
+     * board, reading the current file a row at a time and writing the next
+     * iteration to the other file, which then becomes the current file. The
+     * hash is updated from the nodes each word changed.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+        try {
+            BoardFile.Words in = words(0), out = words(1);
+            boolean life = rule.equals(Rule.LIFE);
+            int birthMask = rule.getBirths(), survivalMask = rule.getSurvivals();
+            long born = 0, died = 0, keys = 0;
+
+            Arrays.fill(above, 0);
+            in.get(row, 0, words);
+            for(int i = 0; i < rows; i++) {
+                if(i + 1 < rows) {
+                    in.get(below, 0, words);
+                } else {
+                    Arrays.fill(below, 0);
+                }
+
+                // sliding window of the previous, current and next word of each row
+                long aPrev = 0, cPrev = 0, bPrev = 0;
+                long aCur = above[0], cCur = row[0], bCur = below[0];
+                for(int k = 0; k < words; k++) {
+                    long aNext = 0, cNext = 0, bNext = 0;
+                    if(k + 1 < words) {
+                        aNext = above[k + 1];
+                        cNext = row[k + 1];
+                        bNext = below[k + 1];
+                    }
+                    long bits = life ? BitBoard.evolve(aPrev, aCur, aNext, cPrev, cCur, cNext, bPrev, bCur, bNext)
+                                     : BitBoard.evolve(birthMask, survivalMask,
+                                                       aPrev, aCur, aNext, cPrev, cCur, cNext, bPrev, bCur, bNext);
+                    if(k == words - 1) {
+                        bits &= lastMask;
+                    }
+                    next[k] = bits;
+                    if(bits != cCur) {
+                        born += Long.bitCount(bits & ~cCur);
+                        died += Long.bitCount(cCur & ~bits);
+                        keys ^= keys((long) i * columns + (k << 6), bits ^ cCur);
+                    }
+                    aPrev = aCur; cPrev = cCur; bPrev = bCur;
+                    aCur = aNext; cCur = cNext; bCur = bNext;
+                }
+                out.put(next, 0, words);
+
+                long[] tmp = above;
+                above = row;
+                row = below;
+                below = tmp;
+            }
+
+            births = born;
+            deaths = died;
+            population += born - died;
+            hash ^= keys;
+            BoardFile.Header header = headers[1];
+            header.generation = headers[0].generation + 1;
+            header.seed = headers[0].seed;
+            swap();
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return births + deaths == 0;
+    }
+
+    /**
+     * Flush
+     * This method writes the header of the current file and forces the file to
+     * the disk, so it can be read by BoardFile or opened again once the board
+     * is closed.
+     */
+    public void flush() throws IOException {
+        writeHeader();
+        for(MappedByteBuffer chunk : chunks[0]) {
+            chunk.force();
+        }
+        tops[0].force();
+    }
+
+    /**
+     * Close
+     * This method writes the header of the current file and closes both files.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Release
+     * This method closes both files without writing the header. The mappings
+     * are released once they are no longer reachable.
+     */
+    private void release() throws IOException {
+        tops = new MappedByteBuffer[2];
+        chunks = new MappedByteBuffer[2][];
+        for(RandomAccessFile raf : rafs) {
+            if(raf != null) {
+                raf.close();
+            }
+        }
+    }
+
+    /**
+     * Swap
+     * This method makes the file holding the next iteration the current file.
+     */
+    private void swap() throws IOException {
+        File file = files[0];
+        files[0] = files[1];
+        files[1] = file;
+        RandomAccessFile raf = rafs[0];
+        rafs[0] = rafs[1];
+        rafs[1] = raf;
+        BoardFile.Header header = headers[0];
+        headers[0] = headers[1];
+        headers[1] = header;
+        MappedByteBuffer top = tops[0];
+        tops[0] = tops[1];
+        tops[1] = top;
+        MappedByteBuffer[] mapped = chunks[0];
+        chunks[0] = chunks[1];
+        chunks[1] = mapped;
+        writeHeader();
+    }
+
+    /**
+     * WriteHeader
+     * This method writes the header of the current file through its mapping,
+     * see flush().
+     */
+    private void writeHeader() throws IOException {
+        BoardFile.Header header = headers[0];
+        header.rows = rows;
+        header.columns = columns;
+        header.hash = hash;
+        header.rule = rule.toString();
+        header.write(tops[0]);
+    }
+
+    /**
+     * Words
+     * This method returns the words of the board in the parameter file, from
+     * the first word of the first row.
+     */
+    private BoardFile.Words words(int file) {
+        return new BoardFile.Words(chunks[file]);
+    }
+
+    /**
+     * Read
+     * This method reads the word of the current file holding node (i, j).
+     */
+    private long read(int i, int j) {
+        try {
+            word.clear();
+            rafs[0].getChannel().read(word, position(i, j));
+            return word.getLong(0);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write
+     * This method writes the word of the current file holding node (i, j).
+     */
+    private void write(int i, int j, long bits) {
+        try {
+            word.clear();
+            word.putLong(0, bits);
+            rafs[0].getChannel().write(word, position(i, j));
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Position
+     * This method returns the position in the current file of the word holding node (i, j).
+     */
+    private long position(int i, int j) {
+        if(i < 0 || i >= rows || j < 0 || j >= columns) {
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") is outside of the board");
+        }
+        return headers[0].length + 8L * ((long) i * words + (j >>> 6));
+    }
+
+    /**
+     * Scan
+     * This method counts the alive nodes of the current file and computes its
+     * hash in one pass.
+     */
+    private void scan() throws IOException {
+        BoardFile.Words in = words(0);
+        hash = 0;
+        population = 0;
+        for(int i = 0; i < rows; i++) {
+            in.get(row, 0, words);
+            for(int k = 0; k < words; k++) {
+                population += Long.bitCount(row[k]);
+                hash ^= keys((long) i * columns + (k << 6), row[k]);
+            }
+        }
+    }
+
+    /**
+     * Keys
+     * This method xors together the zobrist keys of the set bits of a word.
+     *
+     * @param index    the index of the node at bit 0 of the word
+     * @param bits     the word
+     */
+    private static long keys(long index, long bits) {
+        long sum = 0;
+        for(; bits != 0; bits &= bits - 1) {
+            sum ^= Grid.key(index + Long.numberOfTrailingZeros(bits));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * @class Metrics
+ * @description This class defines a lightweight in-process registry of metrics.
+ * Each metric keeps a rolling window of its most recent values, from which the
+ * last value, the mean and percentiles such as the p50 and p99 step time are
+ * computed when they are read. The registry is disabled until setEnabled() is
+ * called, while disabled recording is a single read of a flag.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Metrics {
+
+    // Fields
+    public static final String STEP = "step.ns";                // time to step a generation
+    public static final String RENDER = "render.ns";            // time to draw a frame
+    public static final String BIRTHS = "births";
+    public static final String DEATHS = "deaths";
+    public static final String POPULATION = "population";
+    public static final String EVALUATED = "evaluated";         // nodes evaluated by a generation
+    public static final String ALLOCATED = "allocated.bytes";   // bytes allocated stepping a generation
+    private static final Metrics metrics = new Metrics();
+    private static final int WINDOW = 1024;                     // values kept by each metric
+    private ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<String, Window>();
+    private volatile boolean enabled;
+
+    /**
+     * Constructor
+     * The registry is shared, see getMetrics().
+     */
+    private Metrics() {}
+
+    // Accessors/Mutators
+    public static Metrics getMetrics() { return metrics; }
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Set<String> getNames() { return new TreeSet<String>(windows.keySet()); }
+
+    /**
+     * Record
+     * This method adds a value to the parameter metric, nothing is recorded
+     * while the registry is disabled.
+     *
+     * @param name     the name of the metric
+     * @param value    the value to add
+     */
+    public void record(String name, long value) {
+        if(!enabled) {
+            return;
+        }
+        Window window = windows.get(name);
+        if(window == null) {
+            window = windows.computeIfAbsent(name, key -> new Window());
+        }
+        window.add(value);
+    }
+
+    /**
+     * Count
+     * This method returns the number of values ever recorded for the parameter metric.
+     */
+    public long count(String name) {
+        Window window = windows.get(name);
+        return window == null ? 0 : window.count();
+    }
+
+    /**
+     * Last
+     * This method returns the most recent value of the parameter metric, 0 if none.
+     */
+    public long last(String name) {
+        Window window = windows.get(name);
+        return window == null ? 0 : window.last();
+    }
+
+    /**
+     * Mean
+     * This method returns the mean of the values in the window of the parameter
+     * metric, 0 if none.
+     */
+    public double mean(String name) {
+        long[] values = values(name);
+        if(values.length == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for(long value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    /**
+     * Percentile
+     * This method returns the nearest rank percentile of the values in the window
+     * of the parameter metric, percentile(STEP, 99) is the p99 step time.
+     *
+     * @param name          the name of the metric
+     * @param percentile    the percentile, 0 to 100
+     * @return long         the value at the percentile, 0 if none.
+     */
+    public long percentile(String name, double percentile) {
+        long[] values = values(name);
+        if(values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100 * values.length);
+        return values[Math.min(values.length - 1, Math.max(0, rank - 1))];
+    }
+
+    /**
+     * Reset
+     * This method forgets every recorded value.
+     */
+    public void reset() {
+        windows.clear();
+    }
+
+    /**
+     * AllocatedBytes
+     * This method returns the number of bytes allocated so far by the calling
+     * thread, or 0 if the virtual machine does not count them.
+     */
+    public static long allocatedBytes() {
+        return Allocation.THREADS == null ? 0 : Allocation.THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Values
+     * This method returns a copy of the values in the window of the parameter metric.
+     */
+    private long[] values(String name) {
+        Window window = windows.get(name);
+        return window == null ? new long[0] : window.values();
+    }
+
+    /**
+     * Window
+     * The most recent values of a metric, a ring buffer written by the stepping
+     * thread and read by the display.
+     */
+    private static class Window {
+        private long[] values = new long[WINDOW];
+        private long count;
+
+        public synchronized void add(long value) {
+            values[(int) (count++ % WINDOW)] = value;
+        }
+
+        public synchronized long count() {
+            return count;
+        }
+
+        public synchronized long last() {
+            return count == 0 ? 0 : values[(int) ((count - 1) % WINDOW)];
+        }
+
+        public synchronized long[] values() {
+            return Arrays.copyOf(values, (int) Math.min(count, WINDOW));
+        }
+    }
+
+    /**
+     * Allocation
+     * Holds the thread bean, loaded the first time allocations are counted.
+     */
+    private static class Allocation {
+        private static final com.sun.management.ThreadMXBean THREADS =
+            ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+    }
+}
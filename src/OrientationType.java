@@ -0,0 +1,33 @@
+/**
+ * @enum OrientationType
+ * @description This enum represents the eight ways a brush can be turned, a
+ * number of clockwise quarter turns applied after an optional left to right flip.
+ * @author Damon Greenhalgh
+ */
+
+public enum OrientationType {
+
+    // enums
+    ROTATE0(0, false),
+    ROTATE90(1, false),
+    ROTATE180(2, false),
+    ROTATE270(3, false),
+    FLIP0(0, true),
+    FLIP90(1, true),
+    FLIP180(2, true),
+    FLIP270(3, true);
+
+    // fields
+    private int turns;
+    private boolean flipped;
+
+    // methods
+    public int getTurns() { return this.turns; }
+    public boolean isFlipped() { return this.flipped; }
+    public OrientationType rotate() { return values()[(flipped ? 4 : 0) + (turns + 1) % 4]; }
+    public OrientationType flip() { return values()[(flipped ? 0 : 4) + turns]; }
+    private OrientationType(int turns, boolean flipped) { 
+        this.turns = turns; 
+        this.flipped = flipped; 
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * @class ParallelBitBoard
+ * @description This class defines a bit-packed board that is stepped on multiple
+ * threads. The board is split into horizontal bands of rows, one task per band,
+ * each band reads the halo rows above and below it from the current iteration
+ * and writes only its own rows of the next iteration.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelBitBoard extends BitBoard {
+
+    // Fields
+    private ForkJoinPool pool;
+    private Band[] bands;
+    private int threads;
+
+    /**
+     * Constructor
+     * Generates an empty board stepped on every available processor.
+     */
+    public ParallelBitBoard(int rows, int columns) {
+        this(rows, columns, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor
+     * Generates an empty board stepped on the parameter number of threads.
+     */
+    public ParallelBitBoard(int rows, int columns, int threads) {
+        super(rows, columns);
+        setThreads(threads);
+    }
+
+    // Accessors/Mutators
+    public int getThreads() { return threads; }
+
+    /**
+     * SetThreads
+     * This method sets the number of threads used to step the board, the rows
+     * are divided as evenly as possible into one band per thread.
+     *
+     * @param threads    the number of threads, at least 1.
+     */
+    public void setThreads(int threads) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        if(pool != null) {
+            pool.shutdown();
+        }
+        this.threads = threads;
+        pool = new ForkJoinPool(threads);
+
+        int numBands = Math.max(1, Math.min(threads, getRows()));
+        bands = new Band[numBands];
+        for(int b = 0; b < numBands; b++) {
+            bands[b] = new Band(getRows() * b / numBands, getRows() * (b + 1) / numBands);
+        }
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game, each band is evolved
+     * as its own task and the births, deaths, hash changes and dying nodes of
+     * every band are merged.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+        if(bands.length == 1) {
+            return super.next();
+        }
+
+        prepare();
+        for(Band band : bands) {
+            band.reinitialize();
+            pool.execute(band);
+        }
+
+        long births = 0, deaths = 0, changes = 0, decays = 0;
+        for(Band band : bands) {
+            band.join();
+            births += band.counts[0];
+            deaths += band.counts[1];
+            changes ^= band.counts[2];
+            decays += band.counts[3];
+        }
+
+        swap(births, deaths, changes, decays);
+        return births + deaths + decays == 0;
+    }
+
+    /**
+     * Shutdown
+     * This method releases the threads of the board.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Band
+     * A task that evolves the rows [from, to) of the board.
+     */
+    private class Band extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private int from, to;
+        private long[] counts = new long[4];
+
+        public Band(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            counts[0] = 0;
+            counts[1] = 0;
+            counts[2] = 0;
+            counts[3] = 0;
+            evolveRows(from, to, counts);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * @class Pattern
+ * @description This class defines a structure that can be drawn onto the board
+ * as a brush. The nodes are bit-packed the same way as a BitBoard, each row a
+ * run of 64 bit words. Patterns are made from the preset BrushTypes or loaded
+ * from pattern files, see PatternReader. The eight orientations of a pattern are
+ * compiled the first time each is used and kept with it.
+ * @author Damon Greenhalgh
+ */
+
+public class Pattern {
+
+    // Fields
+    private String name, rule;    // rule is the rulestring of the file, null if none was given
+    private int rows, columns, words;
+    private long[] cells;
+    private Pattern[] orientations = new Pattern[OrientationType.values().length];
+
+    /**
+     * Constructor
+     * Generates an empty pattern.
+     */
+    public Pattern(String name, int rows, int columns) {
+        this.name = name;
+        this.rows = rows;
+        this.columns = columns;
+        words = (columns + 63) >>> 6;
+        cells = new long[rows * words];
+    }
+
+    /**
+     * Constructor
+     * Generates the pattern of the parameter preset structure.
+     */
+    public Pattern(BrushType bt) {
+        this(bt.name(), bt.getStructure().length, width(bt.getStructure()));
+        int[][] structure = bt.getStructure();
+        for(int i = 0; i < structure.length; i++) {
+            for(int j = 0; j < structure[i].length; j++) {
+                setState(i, j, structure[i][j] == 1);
+            }
+        }
+    }
+
+    // Accessors/Mutators
+    public String getName() { return name; }
+    public String getRule() { return rule; }
+    public void setRule(String rule) { this.rule = rule; }
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public int getWords() { return words; }
+    public long getWord(int index) { return cells[index]; }
+    public boolean getState(int i, int j) {
+        return (cells[i * words + (j >>> 6)] & (1L << j)) != 0;
+    }
+    public void setState(int i, int j, boolean state) {
+        if(state) {
+            cells[i * words + (j >>> 6)] |= 1L << j;
+        } else {
+            cells[i * words + (j >>> 6)] &= ~(1L << j);
+        }
+    }
+
+    /**
+     * SetRun
+     * This method sets a run of nodes along row i, from column j to j + length - 1,
+     * a word at a time.
+     */
+    public void setRun(int i, int j, int length, boolean state) {
+        for(int end = j + length; j < end; ) {
+            int to = Math.min(end, (j & ~63) + 64);
+            long mask = (to - j == 64 ? -1L : (1L << (to - j)) - 1) << j;
+            int index = i * words + (j >>> 6);
+            cells[index] = state ? cells[index] | mask : cells[index] & ~mask;
+            j = to;
+        }
+    }
+
+    /**
+     * Orient
+     * This method returns the pattern turned to the parameter orientation. Each
+     * orientation is compiled once, later calls return the same pattern.
+     *
+     * @param orientation    the orientation
+     * @return Pattern       the turned pattern.
+     */
+    public synchronized Pattern orient(OrientationType orientation) {
+        if(orientation == OrientationType.ROTATE0) {
+            return this;
+        }
+        Pattern pattern = orientations[orientation.ordinal()];
+        if(pattern != null) {
+            return pattern;
+        }
+
+        boolean turned = orientation.getTurns() % 2 == 1;
+        pattern = new Pattern(name, turned ? columns : rows, turned ? rows : columns);
+        pattern.rule = rule;
+        for(int i = 0; i < rows; i++) {
+            for(int k = 0; k < words; k++) {
+                for(long bits = cells[i * words + k]; bits != 0; bits &= bits - 1) {
+                    int j = (k << 6) + Long.numberOfTrailingZeros(bits);
+                    int fj = orientation.isFlipped() ? columns - 1 - j : j;
+                    switch(orientation.getTurns()) {
+                        case 0: pattern.setState(i, fj, true); break;
+                        case 1: pattern.setState(fj, rows - 1 - i, true); break;
+                        case 2: pattern.setState(rows - 1 - i, columns - 1 - fj, true); break;
+                        case 3: pattern.setState(columns - 1 - fj, i, true); break;
+                    }
+                }
+            }
+        }
+        orientations[orientation.ordinal()] = pattern;
+        return pattern;
+    }
+
+    /**
+     * Population
+     * This method counts the number of alive nodes in the pattern.
+     *
+     * @return long    the number of alive nodes.
+     */
+    public long population() {
+        long sum = 0;
+        for(long word : cells) {
+            sum += Long.bitCount(word);
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Width
+     * This method returns the length of the longest row of a structure.
+     */
+    private static int width(int[][] structure) {
+        int width = 0;
+        for(int[] row : structure) {
+            width = Math.max(width, row.length);
+        }
+        return width;
+    }
+}
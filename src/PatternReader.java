@@ -0,0 +1,339 @@
+/**
+ * @class PatternReader
+ * @description This class reads pattern files. Run length encoded (.rle), Life 1.06
+ * (.lif, .life) and plaintext (.cells) files are parsed as a stream, a buffer at a
+ * time, and each run of alive nodes is written straight into the destination, a
+ * Pattern or the grid of a board. Memory is bounded by the destination and not by
+ * the size of the file.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class PatternReader {
+
+    // Fields
+    private File file;
+    private Format format;
+    private String name, rule;
+    private long width, height;    // size given by the header of a run length encoded file
+    private InputStream in;
+    private byte[] buffer = new byte[1 << 16];
+    private int position, limit;
+
+    private enum Format { RLE, LIFE, CELLS }
+
+    /**
+     * Sink
+     * Receives each run of alive nodes read from the file, along row i from
+     * column j. Coordinates are relative to the origin of the file.
+     */
+    private interface Sink {
+        void run(long i, long j, int length);
+    }
+
+    /**
+     * Constructor
+     * Opens the parameter file and detects its format from the first line,
+     * falling back to the file extension.
+     */
+    private PatternReader(File file) throws IOException {
+        this.file = file;
+        String extension = file.getName().toLowerCase();
+        String first;
+        try(InputStream in = new FileInputStream(file)) {
+            this.in = in;
+            first = readLine();
+        }
+        first = first == null ? "" : first.trim();
+
+        if(first.startsWith("#Life 1.06")) {
+            format = Format.LIFE;
+        } else if(first.startsWith("#Life")) {
+            throw new IOException(file + ": unsupported format " + first);
+        } else if(first.startsWith("!") || extension.endsWith(".cells")) {
+            format = Format.CELLS;
+        } else if(extension.endsWith(".lif") || extension.endsWith(".life")) {
+            format = Format.LIFE;
+        } else {
+            format = Format.RLE;
+        }
+    }
+
+    /**
+     * Read
+     * This method reads the parameter file into a new pattern, sized to the
+     * bounds of the file. The file is read twice, once for the bounds and once
+     * for the nodes.
+     *
+     * @param file         the pattern file
+     * @return Pattern     the pattern of the file.
+     */
+    public static Pattern read(File file) throws IOException {
+        PatternReader reader = new PatternReader(file);
+        long[] bounds = reader.bounds();
+        long rows = bounds[2] - bounds[0] + 1, columns = bounds[3] - bounds[1] + 1;
+        if(rows * ((columns + 63) >>> 6) > Integer.MAX_VALUE - 8) {
+            throw new IOException(file + ": pattern of " + rows + "x" + columns + " is too large");
+        }
+
+        String name = reader.name;
+        if(name == null) {
+            name = file.getName();
+            name = name.lastIndexOf('.') > 0 ? name.substring(0, name.lastIndexOf('.')) : name;
+        }
+        Pattern pattern = new Pattern(name, (int) rows, (int) columns);
+        reader.parse((i, j, length) -> pattern.setRun((int) (i - bounds[0]), (int) (j - bounds[1]), length, true));
+        pattern.setRule(reader.rule);
+        return pattern;
+    }
+
+    /**
+     * Load
+     * This method reads the parameter file straight into a grid, the origin of
+     * the file is placed at (top, left) and nodes outside of the grid are clipped.
+     * Runs are written with Grid.setRun so packed grids are filled a word at a time.
+     *
+     * @param file       the pattern file
+     * @param grid       the grid to write into
+     * @param top        the row of the grid of the first row of the pattern
+     * @param left       the column of the grid of the first column of the pattern
+     * @return String    the rulestring of the file, null if it has none.
+     */
+    public static String load(File file, Grid grid, int top, int left) throws IOException {
+        PatternReader reader = new PatternReader(file);
+
+        // life 1.06 coordinates are centred on the origin, so find the corner first
+        long[] bounds = reader.format == Format.LIFE ? reader.bounds() : new long[2];
+        long rowOffset = top - bounds[0], columnOffset = left - bounds[1];
+        int rows = grid.getRows(), columns = grid.getColumns();
+
+        reader.parse((i, j, length) -> {
+            long row = i + rowOffset, from = Math.max(0, j + columnOffset), to = Math.min(columns, j + columnOffset + length);
+            if(row >= 0 && row < rows && from < to) {
+                grid.setRun((int) row, (int) from, (int) (to - from), true);
+            }
+        });
+        return reader.rule;
+    }
+
+    /**
+     * Bounds
+     * This method finds the bounds of the alive nodes of the file, as
+     * {top, left, bottom, right}. Run length encoded and plaintext files keep
+     * their origin and the size given in the header.
+     */
+    private long[] bounds() throws IOException {
+        long[] bounds = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        parse((i, j, length) -> {
+            bounds[0] = Math.min(bounds[0], i);
+            bounds[1] = Math.min(bounds[1], j);
+            bounds[2] = Math.max(bounds[2], i);
+            bounds[3] = Math.max(bounds[3], j + length - 1);
+        });
+        if(format != Format.LIFE || bounds[2] < bounds[0]) {
+            bounds[0] = 0;
+            bounds[1] = 0;
+            bounds[2] = Math.max(bounds[2], height - 1);
+            bounds[3] = Math.max(bounds[3], width - 1);
+        }
+        bounds[2] = Math.max(bounds[2], bounds[0]);
+        bounds[3] = Math.max(bounds[3], bounds[1]);
+        return bounds;
+    }
+
+    /**
+     * Parse
+     * This method streams the file, passing each run of alive nodes to the sink.
+     */
+    private void parse(Sink sink) throws IOException {
+        try(InputStream in = new FileInputStream(file)) {
+            this.in = in;
+            position = 0;
+            limit = 0;
+            switch(format) {
+                case RLE: parseRle(sink); break;
+                case LIFE: parseLife(sink); break;
+                case CELLS: parseCells(sink); break;
+            }
+        }
+    }
+
+    /**
+     * ParseRle
+     * This method parses a run length encoded file. Comment lines and the header
+     * line, "x = m, y = n, rule = abc", come before the runs. Runs are an optional
+     * count followed by a tag, 'b' for dead, 'o' for alive and '$' for the end of
+     * a row, up to '!'. In files with more states 'A' is alive and the other
+     * states are dead.
+     */
+    private void parseRle(Sink sink) throws IOException {
+        for(int c = peek(); c == '#' || c == 'x' || c == '\r' || c == '\n'; c = peek()) {
+            String line = readLine().trim();
+            if(line.startsWith("#N")) {
+                name = line.substring(2).trim();
+            } else if(line.startsWith("#r")) {
+                rule = line.substring(2).trim();
+            } else if(line.startsWith("x")) {
+                header(line);
+            }
+        }
+
+        long i = 0, j = 0;
+        int count = 0;
+        boolean prefix = false;
+        for(int c = read(); c != -1 && c != '!'; c = read()) {
+            if(c >= '0' && c <= '9') {
+                if(count > (Integer.MAX_VALUE - 9) / 10) {
+                    throw new IOException(file + ": run count too large");
+                }
+                count = count * 10 + (c - '0');
+                continue;
+            } else if(c >= 'p' && c <= 'y') {
+                prefix = true;
+                continue;
+            }
+
+            int length = Math.max(1, count);
+            if(c == '$') {
+                i += length;
+                j = 0;
+            } else if(c == 'o' || (c == 'A' && !prefix)) {
+                sink.run(i, j, length);
+                j += length;
+            } else if(c > ' ') {
+                j += length;
+            } else {
+                continue;
+            }
+            count = 0;
+            prefix = false;
+        }
+    }
+
+    /**
+     * Header
+     * This method reads the size and rule of a run length encoded header line.
+     */
+    private void header(String line) throws IOException {
+        for(String field : line.split(",")) {
+            String[] parts = field.split("=", 2);
+            if(parts.length != 2) {
+                continue;
+            }
+            String key = parts[0].trim(), value = parts[1].trim();
+            try {
+                if(key.equals("x")) {
+                    width = Long.parseLong(value);
+                } else if(key.equals("y")) {
+                    height = Long.parseLong(value);
+                } else if(key.equals("rule")) {
+                    rule = value;
+                }
+            } catch(NumberFormatException e) {
+                throw new IOException(file + ": bad header " + line);
+            }
+        }
+    }
+
+    /**
+     * ParseLife
+     * This method parses a Life 1.06 file, one "x y" coordinate of an alive node
+     * per line after the "#Life 1.06" line.
+     */
+    private void parseLife(Sink sink) throws IOException {
+        for(String line = readLine(); line != null; line = readLine()) {
+            line = line.trim();
+            if(line.startsWith("#N")) {
+                name = line.substring(2).trim();
+            }
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                if(parts.length != 2) {
+                    throw new NumberFormatException();
+                }
+                sink.run(Long.parseLong(parts[1]), Long.parseLong(parts[0]), 1);
+            } catch(NumberFormatException e) {
+                throw new IOException(file + ": bad coordinate " + line);
+            }
+        }
+    }
+
+    /**
+     * ParseCells
+     * This method parses a plaintext file, one line per row with 'O' for alive
+     * and '.' for dead nodes, lines starting with '!' are comments.
+     */
+    private void parseCells(Sink sink) throws IOException {
+        long i = 0;
+        for(String line = readLine(); line != null; line = readLine()) {
+            if(line.startsWith("!")) {
+                if(line.startsWith("!Name:")) {
+                    name = line.substring(6).trim();
+                }
+                continue;
+            }
+            int start = -1;
+            for(int j = 0; j <= line.length(); j++) {
+                boolean alive = j < line.length() && (line.charAt(j) == 'O' || line.charAt(j) == '*');
+                if(alive && start < 0) {
+                    start = j;
+                } else if(!alive && start >= 0) {
+                    sink.run(i, start, j - start);
+                    start = -1;
+                }
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Read
+     * This method returns the next byte of the file, -1 at the end.
+     */
+    private int read() throws IOException {
+        int c = peek();
+        position++;
+        return c;
+    }
+
+    /**
+     * Peek
+     * This method returns the next byte of the file without consuming it, -1 at the end.
+     */
+    private int peek() throws IOException {
+        if(position >= limit) {
+            limit = Math.max(0, in.read(buffer, 0, buffer.length));
+            position = 0;
+            if(limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * ReadLine
+     * This method returns the next line of the file without its line break,
+     * null at the end.
+     */
+    private String readLine() throws IOException {
+        if(peek() == -1) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        for(int c = read(); c != -1 && c != '\n'; c = read()) {
+            if(c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * @class Rule
+ * @description This class defines the rule of the game, the number of alive
+ * neighbours that give birth to a dead node and that let an alive node survive.
+ * Rules are read from rulestrings, "B3/S23" for the classic game, or "23/3" in
+ * the older survival/birth order. Generations rules add a number of states,
+ * "B2/S/C3" or "/2/3", an alive node that does not survive passes through the
+ * dying states 2, 3, ... before it is dead and only dead nodes can be born.
+ * Each rule is compiled into a table of the next state of every state and
+ * neighbour count, so a node is stepped with a single lookup.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.Locale;
+
+public class Rule {
+
+    // Fields
+    public static final Rule LIFE = parse("B3/S23");
+    private int births, survivals;    // bit n is set if n alive neighbours give birth / survival
+    private int states;               // 2 for life-like rules, more for generations rules
+    private byte[] table;             // next state of state s with n alive neighbours at s * 9 + n
+    private String rulestring;
+
+    /**
+     * Constructor
+     * Compiles the rule with the parameter birth and survival counts.
+     *
+     * @param births        bit n is set if a dead node with n alive neighbours is born
+     * @param survivals     bit n is set if an alive node with n alive neighbours survives
+     * @param states        the number of states, 2 for life-like rules
+     */
+    public Rule(int births, int survivals, int states) {
+        if((births | survivals) >>> 9 != 0 || states < 2 || states > 256) {
+            throw new IllegalArgumentException("bad rule: B" + births + " S" + survivals + " C" + states);
+        }
+        this.births = births;
+        this.survivals = survivals;
+        this.states = states;
+
+        table = new byte[states * 9];
+        for(int n = 0; n <= 8; n++) {
+            table[n] = (byte) ((births >>> n) & 1);
+            table[9 + n] = (byte) (((survivals >>> n) & 1) != 0 ? 1 : 2 % states);
+            for(int s = 2; s < states; s++) {
+                table[s * 9 + n] = (byte) ((s + 1) % states);
+            }
+        }
+
+        rulestring = "B" + digits(births) + "/S" + digits(survivals) + (states > 2 ? "/C" + states : "");
+    }
+
+    /**
+     * Parse
+     * This method reads a rulestring, "Bxx/Syy" or "yy/xx" for life-like rules
+     * and "Bxx/Syy/Cn" or "yy/xx/n" for generations rules, letters in any case.
+     *
+     * @param rulestring    the rulestring to read
+     * @return Rule         the compiled rule.
+     */
+    public static Rule parse(String rulestring) {
+        String[] parts = rulestring.trim().toUpperCase(Locale.ROOT).split("/", -1);
+        int births = 0, survivals = 0, states = 2;
+        try {
+            if(parts.length == 0 || parts.length > 3) {
+                throw new IllegalArgumentException();
+            }
+            boolean lettered = false;
+            for(String part : parts) {
+                lettered |= !part.isEmpty() && Character.isLetter(part.charAt(0));
+            }
+            for(int p = 0; p < parts.length; p++) {
+                String part = parts[p];
+                char kind = lettered ? (part.isEmpty() ? ' ' : part.charAt(0)) : "SBC".charAt(p);
+                String value = lettered ? part.substring(Math.min(1, part.length())) : part;
+                switch(kind) {
+                    case 'B': births |= counts(value); break;
+                    case 'S': survivals |= counts(value); break;
+                    case 'C': case 'G': states = Integer.parseInt(value); break;
+                    default: throw new IllegalArgumentException();
+                }
+            }
+            if(!lettered && parts.length < 2) {
+                throw new IllegalArgumentException();
+            }
+            return new Rule(births, survivals, states);
+        } catch(IllegalArgumentException e) {
+            throw new IllegalArgumentException("bad rulestring: " + rulestring);
+        }
+    }
+
+    // Accessors/Mutators
+    public int getBirths() { return births; }
+    public int getSurvivals() { return survivals; }
+    public int getStates() { return states; }
+    public boolean isBorn(int neighbours) { return ((births >>> neighbours) & 1) != 0; }
+    public boolean survives(int neighbours) { return ((survivals >>> neighbours) & 1) != 0; }
+
+    /**
+     * Next
+     * This method returns the next state of a node from the compiled table.
+     *
+     * @param state         the state of the node, 0 dead, 1 alive, 2 and up dying
+     * @param neighbours    the number of alive neighbours of the node
+     * @return int          the next state of the node.
+     */
+    public int next(int state, int neighbours) {
+        return table[state * 9 + neighbours] & 0xFF;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Rule && rulestring.equals(((Rule) other).rulestring);
+    }
+
+    @Override
+    public int hashCode() {
+        return rulestring.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return rulestring;
+    }
+
+    /**
+     * Counts
+     * This method reads the digits of a rulestring as a mask of neighbour counts.
+     */
+    private static int counts(String digits) {
+        int mask = 0;
+        for(char c : digits.toCharArray()) {
+            if(c < '0' || c > '8') {
+                throw new IllegalArgumentException();
+            }
+            mask |= 1 << (c - '0');
+        }
+        return mask;
+    }
+
+    /**
+     * Digits
+     * This method writes a mask of neighbour counts as the digits of a rulestring.
+     */
+    private static String digits(int mask) {
+        StringBuilder digits = new StringBuilder();
+        for(int n = 0; n <= 8; n++) {
+            if(((mask >>> n) & 1) != 0) {
+                digits.append(n);
+            }
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * @enum RuleType
+ * @description This enum holds well known rules of the game, see Rule.
+ * @author Damon Greenhalgh
+ */
+
+public enum RuleType {
+
+    // enums
+    LIFE("B3/S23"),
+    HIGHLIFE("B36/S23"),
+    DAYANDNIGHT("B3678/S34678"),
+    SEEDS("B2/S"),
+    LIFEWITHOUTDEATH("B3/S012345678"),
+    MAZE("B3/S12345"),
+    REPLICATOR("B1357/S1357"),
+    BRIANSBRAIN("B2/S/C3"),
+    STARWARS("B2/S345/C4");
+
+    // fields
+    private Rule rule;
+
+    // methods
+    public Rule getRule() { return this.rule; }
+    private RuleType(String rulestring) { this.rule = Rule.parse(rulestring); }
+}
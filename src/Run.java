@@ -6,7 +6,11 @@
 
 public class Run {
     public static void main(String[] args) {
-        // GUI IMPLEMENTATION
-        new GUI();
+        // GUI IMPLEMENTATION, optionally sized by [rows] [columns]
+        if(args.length >= 2) {
+            new GUI(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+        } else {
+            new GUI();
+        }
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+/**
+ * @class ScalingReport
+ * @description This class is used to measure how the throughput of the parallel
+ * board scales with the number of threads. For each board size a random board is
+ * stepped at 1, 2, 4, 8... threads up to the number of available processors and
+ * the number of node updates per second is printed. Every thread count steps the
+ * same board, filled from a fixed seed.
+ *
+ * Usage: java ScalingReport [generations] [size...]
+ * @author Damon Greenhalgh
+ */
+
+public class ScalingReport {
+
+    // Fields
+    private static final long SEED = 1;    // seed of the board stepped at every thread count
+
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int[] sizes = {1024, 4096, 16384};
+        if(args.length > 1) {
+            sizes = new int[args.length - 1];
+            for(int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-8s %-8s %14s %14s %10s%n", "size", "threads", "ms/gen", "cells/s", "speedup");
+
+        for(int size : sizes) {
+            ParallelBitBoard board = new ParallelBitBoard(size, size, 1);
+            GameBoard game = new GameBoard(board);
+            double base = 0;
+
+            for(int threads = 1; threads <= processors; threads *= 2) {
+                board.setThreads(threads);
+                game.random(SEED, 0.5);
+
+                // warm up before timing
+                for(int g = 0; g < 5; g++) {
+                    board.next();
+                }
+                long start = System.nanoTime();
+                for(int g = 0; g < generations; g++) {
+                    board.next();
+                }
+                double msPerGen = (System.nanoTime() - start) / 1e6 / generations;
+                double cellsPerSecond = (double) size * size / msPerGen * 1000;
+                if(threads == 1) {
+                    base = msPerGen;
+                }
+                System.out.printf("%-8d %-8d %14.3f %14.3e %9.2fx%n", size, threads, msPerGen, cellsPerSecond, base / msPerGen);
+            }
+            board.shutdown();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * @class Simulation
+ * @description This class runs the gameboard on its own thread. Edits to the board
+ * are submitted as tasks and run on the simulation thread between generations.
+ * Snapshots of the board are published at most once per frame, generations
+ * stepped in between are never copied, so the speed of the simulation is
+ * decoupled from the frame rate of the display.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class Simulation implements Runnable {
+
+    // Fields
+    private GameBoard board;
+    private BlockingQueue<Runnable> tasks = new LinkedBlockingQueue<Runnable>();
+    private volatile Snapshot snapshot;
+    private volatile boolean running;
+    private volatile long delay;                 // nanoseconds between generations, 0 for max speed
+    private volatile long generations;           // generations stepped since the simulation was created
+    private long frameTime = 1000000000L / 60;   // nanoseconds between snapshots while running
+    private long lastPublish;
+    private boolean halted;                      // the last generation changed no nodes
+    private Thread thread;
+
+    /**
+     * Constructor
+     * Prepares a simulation of the parameter board, the board must only be
+     * accessed through submit() once the simulation is started.
+     */
+    public Simulation(GameBoard board) {
+        this.board = board;
+        snapshot = new Snapshot(board, false);
+        thread = new Thread(this, "simulation");
+        thread.setDaemon(true);
+    }
+
+    // Accessors/Mutators
+    public Snapshot getSnapshot() { return snapshot; }
+    public boolean isRunning() { return running; }
+    public long getGenerations() { return generations; }
+    public void setDelay(long millis) { delay = TimeUnit.MILLISECONDS.toNanos(millis); }
+    public void setFrameRate(int fps) { frameTime = 1000000000L / fps; }
+
+    /**
+     * Start
+     * This method starts the simulation thread, the board is not stepped until
+     * resume() is called.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Resume
+     * This method starts stepping the board continuously.
+     */
+    public void resume() {
+        running = true;
+        submit(() -> {});
+    }
+
+    /**
+     * Pause
+     * This method stops stepping the board after the current generation, the
+     * simulation thread is woken so it does not wait out the delay and step
+     * once more.
+     */
+    public void pause() {
+        running = false;
+        submit(() -> {});
+    }
+
+    /**
+     * Step
+     * This method steps the board a single generation.
+     */
+    public void step() {
+        submit(() -> {
+            halted = board.next();
+            generations++;
+        });
+    }
+
+    /**
+     * Submit
+     * This method runs the parameter task on the simulation thread before the
+     * next generation, a snapshot is published once it has run.
+     *
+     * @param task    the task to run, usually an edit of the board
+     */
+    public void submit(Runnable task) {
+        tasks.add(task);
+    }
+
+    /**
+     * Run
+     * The simulation loop. Tasks are run as they arrive, while running the board
+     * is stepped every delay nanoseconds, or as fast as possible when the delay is 0.
+     */
+    @Override
+    public void run() {
+        long nextStep = System.nanoTime();
+        while(true) {
+            try {
+                Runnable task;
+                if(!running) {
+                    task = tasks.take();
+                } else {
+                    long wait = nextStep - System.nanoTime();
+                    task = wait > 0 ? tasks.poll(wait, TimeUnit.NANOSECONDS) : tasks.poll();
+                }
+
+                if(task != null) {
+                    halted = false;
+                    task.run();
+                    publish();
+                    nextStep = System.nanoTime() + delay;
+                    continue;
+                }
+
+                // paused while waiting for the next step
+                if(!running) {
+                    continue;
+                }
+
+                // step the board, stopping when it halts or enters a cycle
+                halted = board.next();
+                generations++;
+                nextStep += delay;
+                if(delay == 0 || nextStep < System.nanoTime()) {
+                    nextStep = System.nanoTime() + delay;
+                }
+                if(halted || board.getPeriod() > 0) {
+                    running = false;
+                    publish();
+                } else if(System.nanoTime() - lastPublish >= frameTime) {
+                    publish();
+                }
+            } catch(InterruptedException ex) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publish
+     * This method copies the board into a new snapshot for the display.
+     */
+    private void publish() {
+        snapshot = new Snapshot(board, halted);
+        lastPublish = System.nanoTime();
+    }
+}
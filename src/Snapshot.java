@@ -0,0 +1,65 @@
+/**
+ * @class Snapshot
+ * @description This class defines an immutable copy of the gameboard at a single
+ * generation. Snapshots are published by the simulation thread for the display
+ * to draw, so the display never reads the board while it is being stepped.
+ * @author Damon Greenhalgh
+ */
+
+public class Snapshot {
+
+    // Fields
+    private final long[] cells;    // bit-packed nodes, same layout as BitBoard
+    private final int rows, columns, words;
+    private final long generation, period, population;
+    private final boolean halted;
+
+    /**
+     * Constructor
+     * Copies the parameter board.
+     *
+     * @param board     the board to copy
+     * @param halted    true if the last iteration of the board changed no nodes
+     */
+    public Snapshot(GameBoard board, boolean halted) {
+        rows = board.getRows();
+        columns = board.getColumns();
+        words = (columns + 63) >>> 6;
+        cells = new long[rows * words];
+        generation = board.getGeneration();
+        period = board.getPeriod();
+        this.halted = halted;
+
+        Grid grid = board.getGrid();
+        if(grid instanceof BitBoard) {
+            ((BitBoard) grid).copyCells(cells);
+        } else {
+            for(int i = 0; i < rows; i++) {
+                for(int j = 0; j < columns; j++) {
+                    if(grid.getState(i, j)) {
+                        cells[i * words + (j >>> 6)] |= 1L << j;
+                    }
+                }
+            }
+        }
+
+        long sum = 0;
+        for(long word : cells) {
+            sum += Long.bitCount(word);
+        }
+        population = sum;
+    }
+
+    // Accessors
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public int getWords() { return words; }
+    public long getGeneration() { return generation; }
+    public long getPeriod() { return period; }
+    public long getPopulation() { return population; }
+    public boolean isHalted() { return halted; }
+    public long getWord(int index) { return cells[index]; }
+    public boolean getState(int i, int j) {
+        return (cells[i * words + (j >>> 6)] & (1L << j)) != 0;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * @class Soup
+ * @description This class defines the outcome of a random soup run by the soup
+ * search, see SoupSearch. A soup is a board randomly filled from its seed and run
+ * until it halts, enters a cycle or reaches the generation limit. The same board
+ * is run again by java Batch --seed SEED with the size, density, rule and topology
+ * of the search.
+ * @author Damon Greenhalgh
+ */
+
+public class Soup implements Comparable<Soup> {
+
+    // Fields
+    private final long seed;
+    private final long lifespan;      // generation the soup halted or entered its cycle, the limit if running
+    private final long period;        // period of the cycle, 1 if halted, 0 if still running
+    private final long population;    // alive nodes of the last generation run
+
+    /**
+     * Constructor
+     * Records the outcome of a soup.
+     */
+    public Soup(long seed, long lifespan, long period, long population) {
+        this.seed = seed;
+        this.lifespan = lifespan;
+        this.period = period;
+        this.population = population;
+    }
+
+    // Accessors
+    public long getSeed() { return seed; }
+    public long getLifespan() { return lifespan; }
+    public long getPeriod() { return period; }
+    public long getPopulation() { return population; }
+    public boolean isRunning() { return period == 0; }
+
+    /**
+     * CompareTo
+     * This method orders soups by lifespan, then by final population, then by seed
+     * so the order does not depend on which thread ran the soup. A soup still
+     * running has only a lower bound on its lifespan, so it orders before every
+     * soup that halted or cycled, whatever their lifespans.
+     */
+    @Override
+    public int compareTo(Soup other) {
+        if(isRunning() != other.isRunning()) {
+            return isRunning() ? -1 : 1;
+        }
+        if(lifespan != other.lifespan) {
+            return Long.compare(lifespan, other.lifespan);
+        }
+        if(population != other.population) {
+            return Long.compare(population, other.population);
+        }
+        return Long.compare(other.seed, seed);
+    }
+
+    /**
+     * ToString
+     * This method returns the outcome as it is printed by the soup search.
+     */
+    @Override
+    public String toString() {
+        String outcome = period == 0 ? "running" : period == 1 ? "halted" : "period " + period;
+        return "seed " + seed + ", lifespan " + lifespan + ", " + outcome + ", population " + population;
+    }
+}
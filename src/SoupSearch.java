@@ -0,0 +1,199 @@
+/**
+ * @class SoupSearch
+ * @description This class runs a census of random soups, many small independent
+ * boards each filled from its own seed and run until it halts, enters a cycle or
+ * reaches the generation limit, to hunt for long lived soups. The soups are run
+ * on a work stealing pool, each worker claims soups a chunk at a time and steps
+ * them on its own board, so every processor stays busy without the workers ever
+ * sharing a board. Each worker keeps its longest lived soups in a bounded heap
+ * and the heaps are merged once the census is done, see getTop().
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SoupSearch {
+
+    // Fields
+    private static final int CHUNK = 16;    // soups claimed at a time by a worker
+    private int rows, columns;
+    private double density = 0.5;
+    private Rule rule = Rule.LIFE;
+    private TopologyType topology = TopologyType.DEAD;
+    private long generations = 10000;       // most generations run of each soup
+    private AtomicLong next = new AtomicLong(), completed = new AtomicLong();
+    private List<Soup> top = new ArrayList<Soup>();
+    private long halted, cycled, running, stepped, time;
+
+    /**
+     * Constructor
+     * Prepares a census of soups of the parameter size.
+     */
+    public SoupSearch(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    // Accessors/Mutators
+    public void setDensity(double density) { this.density = density; }
+    public void setRule(Rule rule) { this.rule = rule; }
+    public void setTopology(TopologyType topology) { this.topology = topology; }
+    public void setGenerations(long generations) { this.generations = generations; }
+    public long getCompleted() { return completed.get(); }
+    public List<Soup> getTop() { return top; }
+    public long getHalted() { return halted; }
+    public long getCycled() { return cycled; }
+    public long getRunning() { return running; }
+    public long getStepped() { return stepped; }
+    public long getTime() { return time; }
+
+    /**
+     * Seed
+     * This method returns the seed of the parameter soup of a census, the soups
+     * of a census are spread over the seeds by the splitmix64 finalizer.
+     *
+     * @param seed     the seed of the census
+     * @param index    the index of the soup
+     * @return long    the seed of the soup.
+     */
+    public static long seed(long seed, long index) {
+        long z = seed + (index + 1) * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Run
+     * This method runs a census of soups. The longest lived soups are kept, see
+     * getTop(), with the number of soups that halted, cycled or were still running.
+     *
+     * @param seed        the seed of the census, see seed()
+     * @param soups       the number of soups to run
+     * @param threads     the number of workers
+     * @param count       the number of longest lived soups to keep
+     * @return List       the longest lived soups, longest first.
+     */
+    public List<Soup> run(long seed, long soups, int threads, int count) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        next.set(0);
+        completed.set(0);
+        halted = cycled = running = stepped = 0;
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<Worker>> tasks = new ArrayList<ForkJoinTask<Worker>>();
+            for(int t = 0; t < threads; t++) {
+                Worker worker = new Worker(seed, soups, count);
+                tasks.add(pool.submit(worker, worker));
+            }
+
+            // merge the census of each worker
+            PriorityQueue<Soup> heap = new PriorityQueue<Soup>();
+            for(ForkJoinTask<Worker> task : tasks) {
+                Worker worker = task.join();
+                halted += worker.halted;
+                cycled += worker.cycled;
+                running += worker.running;
+                stepped += worker.stepped;
+                for(Soup soup : worker.heap) {
+                    keep(heap, soup, count);
+                }
+            }
+            top = new ArrayList<Soup>(heap);
+            Collections.sort(top, Collections.reverseOrder());
+        } finally {
+            pool.shutdown();
+        }
+        time = System.nanoTime() - start;
+        return top;
+    }
+
+    /**
+     * Keep
+     * This method adds the parameter soup to the heap of longest lived soups,
+     * dropping the shortest lived once there are more than count.
+     */
+    private static void keep(PriorityQueue<Soup> heap, Soup soup, int count) {
+        if(count <= 0) {
+            return;
+        }
+        if(heap.size() < count) {
+            heap.add(soup);
+        } else if(soup.compareTo(heap.peek()) > 0) {
+            heap.poll();
+            heap.add(soup);
+        }
+    }
+
+    /**
+     * Worker
+     * Runs soups on its own board until every soup of the census is claimed.
+     */
+    private class Worker implements Runnable {
+        private long seed, soups;
+        private int count;
+        private PriorityQueue<Soup> heap = new PriorityQueue<Soup>();
+        private long halted, cycled, running, stepped;
+
+        public Worker(long seed, long soups, int count) {
+            this.seed = seed;
+            this.soups = soups;
+            this.count = count;
+        }
+
+        @Override
+        public void run() {
+            Grid grid = topology == TopologyType.UNBOUNDED ? new UnboundedGrid(rows, columns) : new BitBoard(rows, columns);
+            grid.setTopology(topology);
+            grid.setRule(rule);
+            GameBoard board = new GameBoard(grid);
+
+            for(long first = next.getAndAdd(CHUNK); first < soups; first = next.getAndAdd(CHUNK)) {
+                long last = Math.min(soups, first + CHUNK);
+                for(long index = first; index < last; index++) {
+                    keep(heap, run(board, SoupSearch.seed(seed, index)), count);
+                }
+                completed.addAndGet(last - first);
+            }
+        }
+
+        /**
+         * Run
+         * This method runs a single soup on the parameter board.
+         */
+        private Soup run(GameBoard board, long seed) {
+            board.clear();
+            board.random(seed, density);
+            boolean stopped = false;
+            while(board.getGeneration() < generations && !stopped && board.getPeriod() == 0) {
+                stopped = board.next();
+            }
+            stepped += board.getGeneration();
+
+            long period = board.getPeriod();
+            if(period == 0 && stopped) {
+                period = 1;
+            }
+            if(period == 0) {
+                running++;
+            } else if(period == 1) {
+                halted++;
+            } else {
+                cycled++;
+            }
+            long lifespan = board.getPeriod() > 0 ? board.getCycleStart() : board.getGeneration();
+            return new Soup(seed, lifespan, period, board.getGrid().population());
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/**
+ * @class SparseUniverse
+ * @description This class defines an unbounded universe. Only the regions of the
+ * universe with alive nodes are stored, as bit-packed 64x64 tiles in an open
+ * addressed table keyed by the packed tile coordinate, so no key is boxed. Tiles
+ * are allocated when a node is born in them and freed when every node in them
+ * has died, so memory is proportional to the population rather than the size
+ * of the pattern. Life-like rules are supported, except those where nodes with
+ * no alive neighbours are born, which would fill the universe.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class SparseUniverse {
+
+    // Fields
+    private long[] keys = new long[64];      // packed tile coordinate of each slot
+    private Tile[] tiles = new Tile[64];     // tile of each slot, null if the slot is empty
+    private int size;
+    private ArrayList<Tile> active = new ArrayList<Tile>();
+    private long generation, births, deaths, hash;
+    private Rule rule = Rule.LIFE;
+    private boolean life = true;             // the rule is LIFE, stepped without the rule masks
+
+    // Accessors/Mutators
+    public long getGeneration() { return generation; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getHash() { return hash; }
+    public int getTileCount() { return size; }
+    public Rule getRule() { return rule; }
+    public void setRule(Rule rule) {
+        if(rule.getStates() > 2 || rule.isBorn(0)) {
+            throw new IllegalArgumentException("an unbounded universe can not run " + rule);
+        }
+        this.rule = rule;
+        life = rule.equals(Rule.LIFE);
+    }
+    public boolean getState(long row, long column) {
+        Tile tile = get((int) (row >> 6), (int) (column >> 6));
+        return tile != null && (tile.cells[(int) row & 63] & (1L << column)) != 0;
+    }
+    public void setState(long row, long column, boolean state) {
+        int tileRow = (int) (row >> 6), tileColumn = (int) (column >> 6);
+        Tile tile = get(tileRow, tileColumn);
+        if(state == (tile != null && (tile.cells[(int) row & 63] & (1L << column)) != 0)) {
+            return;
+        }
+        hash ^= zobrist(row, column);
+        if(state) {
+            if(tile == null) {
+                tile = tile(tileRow, tileColumn);
+            }
+            tile.cells[(int) row & 63] |= 1L << column;
+        } else {
+            tile.cells[(int) row & 63] &= ~(1L << column);
+            if(tile.population() == 0) {
+                remove(tile.key);
+            }
+        }
+    }
+
+    /**
+     * Population
+     * This method counts the number of alive nodes in the universe.
+     *
+     * @return long    the number of alive nodes.
+     */
+    public long population() {
+        long sum = 0;
+        for(Tile tile : tiles) {
+            if(tile != null) {
+                sum += tile.population();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Clear
+     * This method clears the universe, freeing every tile.
+     */
+    public void clear() {
+        Arrays.fill(tiles, null);
+        size = 0;
+        generation = 0;
+        hash = 0;
+    }
+
+    /**
+     * Load
+     * This method replaces the universe with the nodes of the parameter grid,
+     * node (i, j) of the grid is placed at universe coordinate (top + i, left + j).
+     *
+     * @param grid    the grid to load
+     * @param top     the universe row of the first row of the grid
+     * @param left    the universe column of the first column of the grid
+     */
+    public void load(Grid grid, long top, long left) {
+        clear();
+        for(int i = 0; i < grid.getRows(); i++) {
+            for(int j = 0; j < grid.getColumns(); j++) {
+                if(grid.getState(i, j)) {
+                    setState(top + i, left + j, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read
+     * This method copies the region of the universe starting at (top, left) into
+     * the parameter grid, the grid is cleared first.
+     *
+     * @param grid    the grid to write the viewport into
+     * @param top     the universe row of the first row of the grid
+     * @param left    the universe column of the first column of the grid
+     */
+    public void read(Grid grid, long top, long left) {
+        grid.clear();
+        for(Tile tile : tiles) {
+            if(tile == null) {
+                continue;
+            }
+            long tileTop = (long) tile.row << 6, tileLeft = (long) tile.column << 6;
+            if(tileTop + 64 <= top || tileLeft + 64 <= left
+                    || tileTop >= top + grid.getRows() || tileLeft >= left + grid.getColumns()) {
+                continue;
+            }
+            for(int r = 0; r < 64; r++) {
+                long i = tileTop + r - top;
+                if(i < 0 || i >= grid.getRows()) {
+                    continue;
+                }
+                for(long bits = tile.cells[r]; bits != 0; bits &= bits - 1) {
+                    long j = tileLeft + Long.numberOfTrailingZeros(bits) - left;
+                    if(j >= 0 && j < grid.getColumns()) {
+                        grid.setState((int) i, (int) j, true);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the game. Empty tiles are
+     * allocated next to the tiles with alive nodes on their edge so births
+     * can cross into them, and tiles left empty are freed.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    public boolean next() {
+        active.clear();
+        for(Tile tile : tiles) {
+            if(tile != null) {
+                active.add(tile);
+            }
+        }
+
+        // allocate the tiles that nodes can be born into
+        int occupied = active.size();
+        for(int t = 0; t < occupied; t++) {
+            Tile tile = active.get(t);
+            long top = tile.cells[0], bottom = tile.cells[63], west = 0, east = 0;
+            for(int r = 0; r < 64; r++) {
+                west |= tile.cells[r] & 1L;
+                east |= tile.cells[r] >>> 63;
+            }
+            if(top != 0) { expand(tile.row - 1, tile.column); }
+            if(bottom != 0) { expand(tile.row + 1, tile.column); }
+            if(west != 0) { expand(tile.row, tile.column - 1); }
+            if(east != 0) { expand(tile.row, tile.column + 1); }
+            if((top & 1L) != 0) { expand(tile.row - 1, tile.column - 1); }
+            if(top < 0) { expand(tile.row - 1, tile.column + 1); }
+            if((bottom & 1L) != 0) { expand(tile.row + 1, tile.column - 1); }
+            if(bottom < 0) { expand(tile.row + 1, tile.column + 1); }
+        }
+
+        births = 0;
+        deaths = 0;
+        for(Tile tile : active) {
+            evolve(tile);
+        }
+
+        // swap the buffers of every tile, freeing the empty ones
+        for(Tile tile : active) {
+            long[] tmp = tile.cells;
+            tile.cells = tile.buffer;
+            tile.buffer = tmp;
+            if(tile.population() == 0) {
+                remove(tile.key);
+            }
+        }
+        generation++;
+
+        return births + deaths == 0;
+    }
+
+    /**
+     * Evolve
+     * This method writes the next iteration of the parameter tile into its buffer,
+     * using the edges of the eight tiles around it.
+     */
+    private void evolve(Tile tile) {
+        long[] n = row(tile.row - 1, tile.column), s = row(tile.row + 1, tile.column);
+        long[] w = row(tile.row, tile.column - 1), e = row(tile.row, tile.column + 1);
+        long[] nw = row(tile.row - 1, tile.column - 1), ne = row(tile.row - 1, tile.column + 1);
+        long[] sw = row(tile.row + 1, tile.column - 1), se = row(tile.row + 1, tile.column + 1);
+        long[] cells = tile.cells;
+        int birthMask = rule.getBirths(), survivalMask = rule.getSurvivals();
+
+        for(int r = 0; r < 64; r++) {
+            long aPrev, aCur, aNext, bPrev, bCur, bNext;
+            if(r == 0) {
+                aPrev = word(nw, 63); aCur = word(n, 63); aNext = word(ne, 63);
+            } else {
+                aPrev = word(w, r - 1); aCur = cells[r - 1]; aNext = word(e, r - 1);
+            }
+            if(r == 63) {
+                bPrev = word(sw, 0); bCur = word(s, 0); bNext = word(se, 0);
+            } else {
+                bPrev = word(w, r + 1); bCur = cells[r + 1]; bNext = word(e, r + 1);
+            }
+
+            long cCur = cells[r];
+            long next = life ? BitBoard.evolve(aPrev, aCur, aNext, word(w, r), cCur, word(e, r), bPrev, bCur, bNext)
+                             : BitBoard.evolve(birthMask, survivalMask, aPrev, aCur, aNext,
+                                               word(w, r), cCur, word(e, r), bPrev, bCur, bNext);
+            tile.buffer[r] = next;
+            if(next != cCur) {
+                births += Long.bitCount(next & ~cCur);
+                deaths += Long.bitCount(cCur & ~next);
+                long row = ((long) tile.row << 6) + r, column = (long) tile.column << 6;
+                for(long bits = next ^ cCur; bits != 0; bits &= bits - 1) {
+                    hash ^= zobrist(row, column + Long.numberOfTrailingZeros(bits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Row
+     * This method returns the nodes of the parameter tile, null if it is not allocated.
+     */
+    private long[] row(int tileRow, int tileColumn) {
+        Tile tile = get(tileRow, tileColumn);
+        return tile == null ? null : tile.cells;
+    }
+
+    /**
+     * Word
+     * This method returns row r of the parameter tile nodes, 0 if it is not allocated.
+     */
+    private static long word(long[] cells, int r) {
+        return cells == null ? 0 : cells[r];
+    }
+
+    /**
+     * Expand
+     * This method allocates the parameter tile for the next iteration if it
+     * does not exist yet.
+     */
+    private void expand(int tileRow, int tileColumn) {
+        if(get(tileRow, tileColumn) == null) {
+            active.add(tile(tileRow, tileColumn));
+        }
+    }
+
+    /**
+     * Tile
+     * This method allocates an empty tile at the parameter tile coordinate.
+     */
+    private Tile tile(int tileRow, int tileColumn) {
+        Tile tile = new Tile(tileRow, tileColumn);
+        if(size + 1 > tiles.length * 3 / 4) {
+            resize(tiles.length * 2);
+        }
+        int slot = slot(tile.key);
+        while(tiles[slot] != null) {
+            slot = (slot + 1) & (tiles.length - 1);
+        }
+        keys[slot] = tile.key;
+        tiles[slot] = tile;
+        size++;
+        return tile;
+    }
+
+    /**
+     * Get
+     * This method returns the tile at the parameter tile coordinate, null if
+     * it is not allocated.
+     */
+    private Tile get(int tileRow, int tileColumn) {
+        long key = key(tileRow, tileColumn);
+        for(int slot = slot(key); tiles[slot] != null; slot = (slot + 1) & (tiles.length - 1)) {
+            if(keys[slot] == key) {
+                return tiles[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove
+     * This method frees the tile with the parameter key. The tiles after it in
+     * the same run of slots are shifted back, so no slot is left marked deleted.
+     */
+    private void remove(long key) {
+        int mask = tiles.length - 1;
+        int hole = slot(key);
+        while(tiles[hole] != null && keys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+        if(tiles[hole] == null) {
+            return;
+        }
+        for(int slot = (hole + 1) & mask; tiles[slot] != null; slot = (slot + 1) & mask) {
+            // a tile can fill the hole if the hole is between its home slot and it
+            if(((slot - slot(keys[slot])) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                tiles[hole] = tiles[slot];
+                hole = slot;
+            }
+        }
+        tiles[hole] = null;
+        size--;
+    }
+
+    /**
+     * Resize
+     * This method rehashes every tile into a table of the parameter length.
+     */
+    private void resize(int length) {
+        Tile[] old = tiles;
+        keys = new long[length];
+        tiles = new Tile[length];
+        for(Tile tile : old) {
+            if(tile != null) {
+                int slot = slot(tile.key);
+                while(tiles[slot] != null) {
+                    slot = (slot + 1) & (length - 1);
+                }
+                keys[slot] = tile.key;
+                tiles[slot] = tile;
+            }
+        }
+    }
+
+    /**
+     * Slot
+     * This method returns the home slot of the parameter key in the table.
+     */
+    private int slot(long key) {
+        long z = key * 0x9E3779B97F4A7C15L;
+        return (int) (z ^ (z >>> 32)) & (tiles.length - 1);
+    }
+
+    /**
+     * Key
+     * This method packs a tile coordinate into a table key.
+     */
+    private static long key(int tileRow, int tileColumn) {
+        return ((long) tileRow << 32) | (tileColumn & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Zobrist
+     * This method returns the zobrist key of the node at the parameter universe
+     * coordinate, see Grid.key().
+     */
+    private static long zobrist(long row, long column) {
+        return Grid.key(row * 0x100000001L ^ column);
+    }
+
+    /**
+     * Tile
+     * A 64x64 block of the universe, one word per row. The node at (row, column)
+     * of the universe is bit column & 63 of row row & 63 of tile (row >> 6, column >> 6).
+     */
+    private static class Tile {
+        private final int row, column;
+        private final long key;
+        private long[] cells = new long[64], buffer = new long[64];
+
+        public Tile(int row, int column) {
+            this.row = row;
+            this.column = column;
+            key = key(row, column);
+        }
+
+        public long population() {
+            long sum = 0;
+            for(long word : cells) {
+                sum += Long.bitCount(word);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * @class TileCoordinator
+ * @description This class runs a board split into rectangular tiles, each owned by
+ * a separate worker process, see TileWorker. The coordinator assigns each worker
+ * its tile, the seed of the random fill and the address of every other worker, the
+ * workers then exchange the borders of their tiles directly with each other every
+ * generation. The coordinator steps the workers a generation at a time, gathering
+ * the population, whether anything changed and the cost of the exchange, and can
+ * gather the whole board to check it or write it out. Boards with dead edges or
+ * joined as a torus under life-like rules are supported.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class TileCoordinator implements Closeable {
+
+    // Fields
+    static final int STEP = 1, GATHER = 2, STOP = 3;   // commands sent to the workers
+    private static final int REPORT = 4 + 5 * 8;       // bytes of a command and the report of a generation
+    private int rows, columns, tileRows, tileColumns;
+    private Rule rule = Rule.LIFE;
+    private TopologyType topology = TopologyType.DEAD;
+    private ServerSocketChannel server;
+    private Socket[] workers;
+    private DataInputStream[] in;
+    private DataOutputStream[] out;
+    private ArrayList<Process> processes = new ArrayList<Process>();
+    private long generation, population, changes;
+    private long haloBytes, controlBytes, exchangeTime, stepTime;    // totals over every generation
+
+    /**
+     * Constructor
+     * Prepares a board of the parameter size split into tileRows by tileColumns tiles.
+     */
+    public TileCoordinator(int rows, int columns, int tileRows, int tileColumns) {
+        if(tileRows < 1 || tileColumns < 1 || tileRows > rows || tileColumns > columns) {
+            throw new IllegalArgumentException("can not split a " + rows + "x" + columns + " board into "
+                + tileRows + "x" + tileColumns + " tiles");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.tileRows = tileRows;
+        this.tileColumns = tileColumns;
+    }
+
+    // Accessors/Mutators
+    public int getWorkers() { return tileRows * tileColumns; }
+    public long getGeneration() { return generation; }
+    public long getPopulation() { return population; }
+    public long getHaloBytes() { return haloBytes; }
+    public long getControlBytes() { return controlBytes; }
+    public long getExchangeTime() { return exchangeTime; }
+    public long getStepTime() { return stepTime; }
+    public void setRule(Rule rule) {
+        if(rule.getStates() > 2) {
+            throw new IllegalArgumentException("generations rules can not be split into tiles: " + rule);
+        }
+        this.rule = rule;
+    }
+    public void setTopology(TopologyType topology) {
+        if(topology != TopologyType.DEAD && topology != TopologyType.TORUS) {
+            throw new IllegalArgumentException("only dead edges or a torus can be split into tiles: " + topology);
+        }
+        this.topology = topology;
+    }
+
+    /**
+     * Bind
+     * This method listens for the workers on the parameter port.
+     *
+     * @param port     the port, 0 for any free port
+     * @return int     the port listened on.
+     */
+    public int bind(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Launch
+     * This method starts a worker process for each tile on this machine, with
+     * the class path of this process.
+     */
+    public void launch() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        for(int w = 0; w < getWorkers(); w++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                "TileWorker", "127.0.0.1:" + port).inheritIO().start());
+        }
+    }
+
+    /**
+     * Start
+     * This method waits for a worker for each tile, assigns the tiles and waits
+     * for the workers to fill them and link to each other. The board is filled
+     * as GameBoard.random(seed, density) fills it.
+     *
+     * @param seed       the seed of the random fill
+     * @param density    the probability of a node being alive, 0 for an empty board
+     */
+    public void start(long seed, double density) throws IOException {
+        int count = getWorkers();
+        workers = new Socket[count];
+        in = new DataInputStream[count];
+        out = new DataOutputStream[count];
+        int[] ports = new int[count];
+        server.socket().setSoTimeout(100);
+        for(int w = 0; w < count; w++) {
+            workers[w] = accept();
+            workers[w].setTcpNoDelay(true);
+            in[w] = new DataInputStream(new BufferedInputStream(Channels.newInputStream(workers[w].getChannel())));
+            out[w] = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(workers[w].getChannel())));
+            ports[w] = in[w].readInt();
+        }
+
+        // each worker is told its tile and the address of every worker
+        for(int w = 0; w < count; w++) {
+            out[w].writeInt(w);
+            out[w].writeInt(rows);
+            out[w].writeInt(columns);
+            out[w].writeInt(tileRows);
+            out[w].writeInt(tileColumns);
+            out[w].writeUTF(rule.toString());
+            out[w].writeUTF(topology.name());
+            out[w].writeLong(seed);
+            out[w].writeDouble(density);
+            for(int p = 0; p < count; p++) {
+                out[w].writeUTF(workers[p].getInetAddress().getHostAddress());
+                out[w].writeInt(ports[p]);
+            }
+            out[w].flush();
+        }
+        population = 0;
+        for(int w = 0; w < count; w++) {
+            population += in[w].readLong();
+        }
+    }
+
+    /**
+     * Next
+     * This method steps every tile a generation. The exchange and step times of
+     * a generation are those of the slowest worker.
+     *
+     * @return boolean    true if no node of the board changed, false otherwise.
+     */
+    public boolean next() throws IOException {
+        for(DataOutputStream stream : out) {
+            stream.writeInt(STEP);
+            stream.flush();
+        }
+        long sum = 0, changed = 0, exchange = 0, step = 0;
+        for(DataInputStream stream : in) {
+            sum += stream.readLong();
+            changed += stream.readLong();
+            haloBytes += stream.readLong();
+            exchange = Math.max(exchange, stream.readLong());
+            step = Math.max(step, stream.readLong());
+        }
+        controlBytes += (long) REPORT * getWorkers();
+        exchangeTime += exchange;
+        stepTime += step;
+        population = sum;
+        changes = changed;
+        generation++;
+        return changes == 0;
+    }
+
+    /**
+     * Gather
+     * This method copies the tiles of every worker into a single board, the
+     * board must fit on this heap.
+     *
+     * @return BitBoard    the whole board.
+     */
+    public BitBoard gather() throws IOException {
+        BitBoard board = new BitBoard(rows, columns);
+        board.setTopology(topology);
+        board.setRule(rule);
+        for(int w = 0; w < getWorkers(); w++) {
+            out[w].writeInt(GATHER);
+            out[w].flush();
+        }
+        for(int w = 0; w < getWorkers(); w++) {
+            int tileRow = w / tileColumns, tileColumn = w % tileColumns;
+            int top = (int) ((long) rows * tileRow / tileRows);
+            int left = (int) ((long) columns * tileColumn / tileColumns);
+            int height = (int) ((long) rows * (tileRow + 1) / tileRows) - top;
+            int width = (int) ((long) columns * (tileColumn + 1) / tileColumns) - left;
+            for(int i = 0; i < height; i++) {
+                for(int k = 0; k < (width + 63) >>> 6; k++) {
+                    long bits = in[w].readLong();
+                    if(bits != 0) {
+                        board.setBits(top + i, left + (k << 6), bits, true);
+                    }
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Close
+     * This method stops the workers and waits for the launched processes to exit.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for(int w = 0; workers != null && w < workers.length; w++) {
+                if(workers[w] != null) {
+                    try {
+                        out[w].writeInt(STOP);
+                        out[w].flush();
+                    } catch(IOException e) {
+                        // the worker has already gone
+                    }
+                    workers[w].close();
+                }
+            }
+            if(server != null) {
+                server.close();
+            }
+        } finally {
+            for(Process process : processes) {
+                try {
+                    if(!process.waitFor(5, TimeUnit.SECONDS)) {
+                        process.destroyForcibly();
+                    }
+                } catch(InterruptedException e) {
+                    process.destroyForcibly();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Accept
+     * This method waits for the next worker to connect, failing if a launched
+     * worker exits first.
+     */
+    private Socket accept() throws IOException {
+        while(true) {
+            try {
+                return server.socket().accept();
+            } catch(SocketTimeoutException e) {
+                for(Process process : processes) {
+                    if(!process.isAlive() && process.exitValue() != 0) {
+                        throw new IOException("a worker exited with status " + process.exitValue());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,431 @@
+/**
+ * @class TileWorker
+ * @description This class runs one tile of a board split across processes, see
+ * TileCoordinator. The tile is stepped on a BitBoard one node larger on every side,
+ * the halo, which holds the border nodes of the eight neighbouring tiles. Before
+ * each generation the worker sends its own border nodes to its neighbours and
+ * receives theirs into the halo, over a socket channel to each neighbour, so the
+ * nodes of the tile step exactly as they would on a single board. Nodes the halo
+ * gains or loses while stepping are not counted, only those of the tile are.
+ *
+ * Usage: java TileWorker HOST:PORT
+ *   connects to the coordinator at HOST:PORT and runs the tile it is assigned.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Random;
+
+public class TileWorker {
+
+    // Fields
+    private static final int[] DI = {-1, -1, 0, 1, 1, 1, 0, -1};   // directions N, NE, E, SE, S, SW, W, NW
+    private static final int[] DJ = {0, 1, 1, 1, 0, -1, -1, -1};
+    private int id, tileRow, tileColumn;
+    private int top, left, height, width;         // nodes of the board in the tile
+    private BitBoard board;                        // the tile and its halo
+    private long[][] halo = new long[8][];         // halo received from each direction
+    private long[][] after = new long[8][];        // halo after a generation is stepped
+    private Link[] links = new Link[8];            // link to the neighbour in each direction, null if none
+    private Selector selector;
+    private long population, changes, sent;
+
+    /**
+     * Main
+     * Runs a worker for the coordinator at HOST:PORT.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1 || args[0].lastIndexOf(':') < 0) {
+            System.err.println("usage: java TileWorker HOST:PORT");
+            System.exit(2);
+        }
+        int at = args[0].lastIndexOf(':');
+        new TileWorker().run(args[0].substring(0, at), Integer.parseInt(args[0].substring(at + 1)));
+    }
+
+    /**
+     * Run
+     * This method connects to the coordinator, sets up the assigned tile and
+     * its links to the neighbouring tiles, then serves the coordinator until it
+     * is told to stop.
+     *
+     * @param host    the host of the coordinator
+     * @param port    the port of the coordinator
+     */
+    public void run(String host, int port) throws IOException {
+        try(SocketChannel coordinator = SocketChannel.open(new InetSocketAddress(host, port));
+            ServerSocketChannel server = ServerSocketChannel.open()) {
+            coordinator.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            server.bind(new InetSocketAddress(0));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(coordinator)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(coordinator)));
+            out.writeInt(((InetSocketAddress) server.getLocalAddress()).getPort());
+            out.flush();
+
+            // assignment
+            id = in.readInt();
+            int rows = in.readInt(), columns = in.readInt();
+            int tileRows = in.readInt(), tileColumns = in.readInt();
+            Rule rule = Rule.parse(in.readUTF());
+            TopologyType topology = TopologyType.valueOf(in.readUTF());
+            long seed = in.readLong();
+            double density = in.readDouble();
+            InetSocketAddress[] peers = new InetSocketAddress[tileRows * tileColumns];
+            for(int p = 0; p < peers.length; p++) {
+                peers[p] = new InetSocketAddress(in.readUTF(), in.readInt());
+            }
+
+            tileRow = id / tileColumns;
+            tileColumn = id % tileColumns;
+            top = (int) ((long) rows * tileRow / tileRows);
+            left = (int) ((long) columns * tileColumn / tileColumns);
+            height = (int) ((long) rows * (tileRow + 1) / tileRows) - top;
+            width = (int) ((long) columns * (tileColumn + 1) / tileColumns) - left;
+            board = new BitBoard(height + 2, width + 2);
+            board.setRule(rule);
+            fill(seed, density, columns);
+            connect(server, peers, tileRows, tileColumns, topology);
+            out.writeLong(population);
+            out.flush();
+
+            // serve the coordinator
+            while(true) {
+                int op = in.readInt();
+                if(op == TileCoordinator.STEP) {
+                    long start = System.nanoTime();
+                    exchange();
+                    long exchanged = System.nanoTime();
+                    step();
+                    out.writeLong(population);
+                    out.writeLong(changes);
+                    out.writeLong(sent);
+                    out.writeLong(exchanged - start);
+                    out.writeLong(System.nanoTime() - exchanged);
+                    out.flush();
+                } else if(op == TileCoordinator.GATHER) {
+                    for(int i = 1; i <= height; i++) {
+                        for(long word : row(i)) {
+                            out.writeLong(word);
+                        }
+                    }
+                    out.flush();
+                } else {
+                    return;
+                }
+            }
+        } finally {
+            for(Link link : links) {
+                if(link != null) {
+                    link.channel.close();
+                }
+            }
+            if(selector != null) {
+                selector.close();
+            }
+        }
+    }
+
+    /**
+     * Fill
+     * This method fills the tile as GameBoard.random(seed, density) fills the
+     * whole board. Each node takes two steps of the generator, so the generator
+     * is jumped to the first node of each row of the tile rather than drawing
+     * the nodes of the board before it.
+     */
+    private void fill(long seed, double density, int columns) {
+        if(density > 0) {
+            Random random = new Random();
+            long state = (seed ^ 0x5DEECE66DL) & ((1L << 48) - 1);
+            for(int i = 0; i < height; i++) {
+                random.setSeed(jump(state, 2 * ((long) (top + i) * columns + left)) ^ 0x5DEECE66DL);
+                for(int j = 0; j < width; j++) {
+                    if(random.nextDouble() < density) {
+                        board.setState(i + 1, j + 1, true);
+                        population++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Jump
+     * This method returns the state of the java.util.Random generator the
+     * parameter number of steps after the parameter state, composing the linear
+     * congruential step with itself by squaring.
+     */
+    private static long jump(long state, long steps) {
+        long mask = (1L << 48) - 1;
+        long multiplier = 1, increment = 0;
+        long a = 0x5DEECE66DL, c = 0xBL;
+        for(; steps > 0; steps >>>= 1) {
+            if((steps & 1) != 0) {
+                multiplier = multiplier * a & mask;
+                increment = (increment * a + c) & mask;
+            }
+            c = (a + 1) * c & mask;
+            a = a * a & mask;
+        }
+        return (multiplier * state + increment) & mask;
+    }
+
+    /**
+     * Connect
+     * This method opens a link to the neighbouring tile in each direction. Of the
+     * two ends of a link the one with the lower id and direction connects and the
+     * other accepts, a tile that neighbours itself on a torus links to itself.
+     */
+    private void connect(ServerSocketChannel server, InetSocketAddress[] peers,
+                         int tileRows, int tileColumns, TopologyType topology) throws IOException {
+        int accepts = 0;
+        for(int d = 0; d < 8; d++) {
+            halo[d] = new long[length(d)];
+            after[d] = new long[length(d)];
+            int i = tileRow + DI[d], j = tileColumn + DJ[d];
+            if(topology == TopologyType.TORUS) {
+                i = Math.floorMod(i, tileRows);
+                j = Math.floorMod(j, tileColumns);
+            } else if(i < 0 || i >= tileRows || j < 0 || j >= tileColumns) {
+                continue;
+            }
+            int peer = i * tileColumns + j;
+            if(peer * 8 + (d + 4) % 8 < id * 8 + d) {
+                accepts++;
+                continue;
+            }
+            SocketChannel channel = SocketChannel.open(peers[peer]);
+            ByteBuffer handshake = ByteBuffer.allocate(8).putInt(id).putInt(d);
+            handshake.flip();
+            while(handshake.hasRemaining()) {
+                channel.write(handshake);
+            }
+            links[d] = new Link(channel, d);
+        }
+        for(int n = 0; n < accepts; n++) {
+            SocketChannel channel = server.accept();
+            ByteBuffer handshake = ByteBuffer.allocate(8);
+            while(handshake.hasRemaining()) {
+                if(channel.read(handshake) < 0) {
+                    throw new EOFException("a neighbouring tile closed its link");
+                }
+            }
+            int d = (handshake.getInt(4) + 4) % 8;
+            links[d] = new Link(channel, d);
+        }
+
+        selector = Selector.open();
+        for(Link link : links) {
+            if(link != null) {
+                link.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                link.channel.configureBlocking(false);
+                link.key = link.channel.register(selector, 0, link);
+            }
+        }
+    }
+
+    /**
+     * Exchange
+     * This method sends the border of the tile facing each neighbour and receives
+     * the border of each neighbour into the halo, writing and reading every link
+     * at once so no link waits on another.
+     */
+    private void exchange() throws IOException {
+        int pending = 0;
+        sent = 0;
+        for(Link link : links) {
+            if(link == null) {
+                continue;
+            }
+            link.send.clear();
+            for(long word : border(link.direction)) {
+                link.send.putLong(word);
+            }
+            link.send.flip();
+            link.receive.clear();
+            link.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            sent += link.send.remaining();
+            pending += 2;
+        }
+
+        while(pending > 0) {
+            selector.select();
+            for(SelectionKey key : selector.selectedKeys()) {
+                Link link = (Link) key.attachment();
+                if(key.isWritable() && link.send.hasRemaining()) {
+                    link.channel.write(link.send);
+                    if(!link.send.hasRemaining()) {
+                        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                        pending--;
+                    }
+                }
+                if(key.isReadable() && link.receive.hasRemaining()) {
+                    if(link.channel.read(link.receive) < 0) {
+                        throw new EOFException("a neighbouring tile closed its link");
+                    }
+                    if(!link.receive.hasRemaining()) {
+                        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                        pending--;
+                    }
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+
+        for(int d = 0; d < 8; d++) {
+            if(links[d] != null) {
+                links[d].receive.flip();
+                for(int k = 0; k < halo[d].length; k++) {
+                    halo[d][k] = links[d].receive.getLong();
+                }
+            }
+        }
+    }
+
+    /**
+     * Step
+     * This method writes the halo into the board and steps it, the nodes the
+     * halo gained or lost while stepping are taken from the births and deaths
+     * so only the changes of the tile are counted.
+     */
+    private void step() {
+        for(int d = 0; d < 8; d++) {
+            write(d, halo[d]);
+        }
+        board.next();
+        long births = board.getBirths(), deaths = board.getDeaths();
+        for(int d = 0; d < 8; d++) {
+            read(d, after[d]);
+            for(int k = 0; k < after[d].length; k++) {
+                births -= Long.bitCount(after[d][k] & ~halo[d][k]);
+                deaths -= Long.bitCount(halo[d][k] & ~after[d][k]);
+            }
+        }
+        population += births - deaths;
+        changes = births + deaths;
+    }
+
+    /**
+     * Length
+     * This method returns the number of words of the border facing the parameter direction.
+     */
+    private int length(int d) {
+        return d % 4 != 0 ? (d % 2 != 0 ? 1 : (height + 63) >>> 6) : (width + 63) >>> 6;
+    }
+
+    /**
+     * Border
+     * This method returns the nodes of the tile along its edge facing the
+     * parameter direction, the corner node for a diagonal.
+     */
+    private long[] border(int d) {
+        int i = DI[d] < 0 ? 1 : DI[d] > 0 ? height : 0;
+        int j = DJ[d] < 0 ? 1 : DJ[d] > 0 ? width : 0;
+        if(i == 0) {
+            return column(j);
+        } else if(j == 0) {
+            return row(i);
+        }
+        return new long[] {board.getState(i, j) ? 1 : 0};
+    }
+
+    /**
+     * Row
+     * This method returns the nodes of the tile along row i of the board.
+     */
+    private long[] row(int i) {
+        long[] words = new long[(width + 63) >>> 6];
+        for(int k = 0; k < words.length; k++) {
+            words[k] = board.getBits(i, 1 + (k << 6));
+            if(width - (k << 6) < 64) {
+                words[k] &= (1L << (width - (k << 6))) - 1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Column
+     * This method returns the nodes of the tile along column j of the board.
+     */
+    private long[] column(int j) {
+        long[] words = new long[(height + 63) >>> 6];
+        for(int i = 0; i < height; i++) {
+            if(board.getState(i + 1, j)) {
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Read
+     * This method reads the halo in the parameter direction into the parameter words.
+     */
+    private void read(int d, long[] words) {
+        int i = DI[d] < 0 ? 0 : DI[d] > 0 ? height + 1 : -1;
+        int j = DJ[d] < 0 ? 0 : DJ[d] > 0 ? width + 1 : -1;
+        if(i < 0) {
+            System.arraycopy(column(j), 0, words, 0, words.length);
+        } else if(j < 0) {
+            System.arraycopy(row(i), 0, words, 0, words.length);
+        } else {
+            words[0] = board.getState(i, j) ? 1 : 0;
+        }
+    }
+
+    /**
+     * Write
+     * This method sets the halo in the parameter direction to the parameter words.
+     */
+    private void write(int d, long[] words) {
+        int i = DI[d] < 0 ? 0 : DI[d] > 0 ? height + 1 : -1;
+        int j = DJ[d] < 0 ? 0 : DJ[d] > 0 ? width + 1 : -1;
+        if(i < 0) {
+            for(int n = 0; n < height; n++) {
+                board.setState(n + 1, j, (words[n >>> 6] & (1L << n)) != 0);
+            }
+        } else if(j < 0) {
+            for(int k = 0; k < words.length; k++) {
+                int length = Math.min(64, width - (k << 6));
+                long mask = length == 64 ? -1L : (1L << length) - 1;
+                board.setBits(i, 1 + (k << 6), mask & ~words[k], false);
+                board.setBits(i, 1 + (k << 6), words[k], true);
+            }
+        } else {
+            board.setState(i, j, words[0] != 0);
+        }
+    }
+
+    /**
+     * Link
+     * The channel to the neighbouring tile in a direction, with buffers for the
+     * border sent to it and the border received from it.
+     */
+    private class Link {
+        private SocketChannel channel;
+        private SelectionKey key;
+        private int direction;
+        private ByteBuffer send, receive;
+
+        public Link(SocketChannel channel, int direction) {
+            this.channel = channel;
+            this.direction = direction;
+            send = ByteBuffer.allocateDirect(length(direction) * 8);
+            receive = ByteBuffer.allocateDirect(length(direction) * 8);
+        }
+    }
+}
@@ -0,0 +1,522 @@
+/**
+ * @class Timeline
+ * @description This class defines a journal of the generations of a gameboard,
+ * used to rewind the board to any recorded generation, see GameBoard.seek().
+ * Each generation is recorded as a delta, the nodes that flipped in each bit
+ * plane of the board since the previous generation, as varint gaps between
+ * flipped nodes or as raw words when too many flipped. Every so often a keyframe,
+ * the delta from an empty board, starts a new segment of the journal, so a seek
+ * decodes a keyframe and replays the deltas after it. A new keyframe is taken
+ * once the deltas after the last one outgrow it, bounding the cost of a seek.
+ * The journal is kept within a budget of memory, once it is exceeded the oldest
+ * segments are spilled to a file, or forgotten if there is none. The spill file
+ * is a ring kept within a budget of its own, once it is full the oldest spilled
+ * segments are forgotten to make room.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class Timeline implements Closeable {
+
+    // Fields
+    private static final int KEYFRAME = 256;     // most generations in a segment
+    private long budget;                         // bytes of the journal kept in memory
+    private long memory;                         // bytes of the journal in memory
+    private FileChannel spill;                   // file of the spilled segments, null to forget them
+    private long limit;                          // bytes of the journal kept in the spill file
+    private long spillStart, spillLength;        // range of the spilled bytes, wrapped around the file
+    private ArrayList<Segment> segments = new ArrayList<Segment>();
+    private volatile long first = -1, last = -1; // range of recorded generations, -1 when empty
+    private long[][] shadow;                     // planes of the last recorded generation
+    private long shadowGeneration = -1;
+    private long[][] work;                       // planes decoded by a seek
+    private BitBoard scratch;                    // packed copy of grids that are not bit-packed
+    private int rows, columns, words;
+    private int at;                              // read position while decoding
+
+    /**
+     * Constructor
+     * Generates an empty timeline kept in the parameter budget of memory, older
+     * generations are forgotten.
+     *
+     * @param budget    the bytes of the journal kept in memory
+     */
+    public Timeline(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Constructor
+     * Generates an empty timeline kept in the parameter budget of memory, older
+     * generations are spilled to the parameter file, which is deleted on close.
+     * The file is kept in the parameter limit, the oldest generations spilled
+     * are forgotten.
+     *
+     * @param budget    the bytes of the journal kept in memory
+     * @param file      the file to spill to
+     * @param limit     the bytes of the journal kept in the file
+     */
+    public Timeline(long budget, File file, long limit) throws IOException {
+        this(budget);
+        this.limit = limit;
+        spill = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    // Accessors
+    public long getFirst() { return first; }
+    public long getLast() { return last; }
+    public long getMemory() { return memory; }
+    public long getSpilled() { return spillLength - spillStart; }
+    public boolean contains(long generation) { return first >= 0 && generation >= first && generation <= last; }
+
+    /**
+     * Record
+     * This method records the parameter grid as the parameter generation. If the
+     * generation was already recorded with the same hash the board is replaying
+     * its recorded future and nothing is written, otherwise the generations from
+     * it onwards are replaced.
+     *
+     * @param grid          the grid to record
+     * @param generation    the generation of the grid
+     */
+    public void record(Grid grid, long generation) {
+        BitBoard packed = pack(grid);
+        int planes = packed.getPlanes();
+        if(contains(generation)) {
+            Segment segment = segment(generation);
+            if(segment.planes == planes && segment.hashes[(int) (generation - segment.first)] == grid.getHash()) {
+                return;
+            }
+            truncate(generation);
+        }
+
+        // the journal restarts when the board is not the next generation of it
+        if(last < 0 || generation != last + 1 || shadow == null || shadow.length != planes
+                || rows != grid.getRows() || columns != grid.getColumns()) {
+            reset(grid, planes);
+        } else if(shadowGeneration != last) {
+            load(last, shadow);
+            shadowGeneration = last;
+        }
+        append(packed, generation, grid.getHash());
+        trim();
+    }
+
+    /**
+     * Restore
+     * This method sets the parameter grid to a recorded generation, decoding the
+     * keyframe before it and replaying the deltas in between.
+     *
+     * @param grid          the grid to restore, of the size and rule recorded
+     * @param generation    the generation to restore
+     * @return boolean      true if the generation was restored, false if it is not recorded.
+     */
+    public boolean restore(Grid grid, long generation) {
+        if(!contains(generation) || grid.getRows() != rows || grid.getColumns() != columns) {
+            return false;
+        }
+        BitBoard packed = grid instanceof BitBoard ? (BitBoard) grid : scratch(grid);
+        if(segment(generation).planes != packed.getPlanes()) {
+            return false;
+        }
+        if(work == null || work.length != shadow.length) {
+            work = new long[shadow.length][rows * words];
+        }
+        load(generation, work);
+        for(int p = 0; p < work.length; p++) {
+            packed.loadCells(p, 0, LongBuffer.wrap(work[p]));
+        }
+        packed.rehash();
+
+        // grids that are not bit-packed are set a node at a time
+        if(packed != grid) {
+            for(int i = 0; i < rows; i++) {
+                for(int j = 0; j < columns; j++) {
+                    int value = packed.getValue(i, j);
+                    if(grid.getValue(i, j) != value) {
+                        grid.setValue(i, j, value);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clear
+     * This method forgets every recorded generation.
+     */
+    public void clear() {
+        segments.clear();
+        memory = 0;
+        spillStart = 0;
+        spillLength = 0;
+        first = -1;
+        last = -1;
+        shadowGeneration = -1;
+    }
+
+    /**
+     * Close
+     * This method forgets the journal and deletes the spill file.
+     */
+    @Override
+    public void close() throws IOException {
+        clear();
+        if(spill != null) {
+            spill.close();
+        }
+    }
+
+    /**
+     * Reset
+     * This method forgets the journal and sizes it for the parameter grid.
+     */
+    private void reset(Grid grid, int planes) {
+        clear();
+        rows = grid.getRows();
+        columns = grid.getColumns();
+        words = (columns + 63) >>> 6;
+        shadow = new long[planes][rows * words];
+    }
+
+    /**
+     * Append
+     * This method writes the parameter board as the next generation of the
+     * journal, as a keyframe when a new segment is started.
+     */
+    private void append(BitBoard packed, long generation, long hash) {
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if(segment == null || segment.position >= 0 || segment.count >= KEYFRAME
+                || segment.length - segment.offsets[1] > Math.max(2 * segment.offsets[1], 4096)) {
+            segment = new Segment(generation, shadow.length);
+            segments.add(segment);
+            for(long[] plane : shadow) {
+                Arrays.fill(plane, 0);
+            }
+        }
+
+        int start = segment.length;
+        for(int p = 0; p < shadow.length; p++) {
+            encode(segment, shadow[p], packed, p);
+        }
+        segment.add(hash);
+        memory += segment.length - start;
+        shadowGeneration = generation;
+        last = generation;
+        if(first < 0) {
+            first = generation;
+        }
+    }
+
+    /**
+     * Encode
+     * This method writes the nodes of a plane that differ from the parameter
+     * words, then updates the words. Each flipped node is written as the varint
+     * gap from the last, unless writing the words raw is smaller.
+     */
+    private void encode(Segment segment, long[] old, BitBoard packed, int plane) {
+        long count = 0;
+        for(int k = 0; k < old.length; k++) {
+            count += Long.bitCount(old[k] ^ packed.getWord(plane, k));
+        }
+
+        if(count * 2 > (long) old.length * 8) {
+            segment.putVarint(1);
+            for(int k = 0; k < old.length; k++) {
+                long word = packed.getWord(plane, k);
+                segment.putLong(old[k] ^ word);
+                old[k] = word;
+            }
+            return;
+        }
+
+        segment.putVarint(count << 1);
+        long previous = -1;
+        for(int k = 0; k < old.length; k++) {
+            long word = packed.getWord(plane, k);
+            for(long bits = old[k] ^ word; bits != 0; bits &= bits - 1) {
+                long position = ((long) k << 6) + Long.numberOfTrailingZeros(bits);
+                segment.putVarint(position - previous - 1);
+                previous = position;
+            }
+            old[k] = word;
+        }
+    }
+
+    /**
+     * Load
+     * This method decodes the parameter generation into the parameter planes.
+     */
+    private void load(long generation, long[][] planes) {
+        Segment segment = segment(generation);
+        byte[] bytes = bytes(segment);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for(long[] plane : planes) {
+            Arrays.fill(plane, 0);
+        }
+        at = 0;
+        for(int n = 0; n <= generation - segment.first; n++) {
+            for(long[] plane : planes) {
+                long header = varint(bytes);
+                if((header & 1) != 0) {
+                    for(int k = 0; k < plane.length; k++) {
+                        plane[k] ^= buffer.getLong(at);
+                        at += 8;
+                    }
+                    continue;
+                }
+                long position = -1;
+                for(long count = header >>> 1; count > 0; count--) {
+                    position += varint(bytes) + 1;
+                    plane[(int) (position >>> 6)] ^= 1L << position;
+                }
+            }
+        }
+    }
+
+    /**
+     * Varint
+     * This method reads a varint at the read position.
+     */
+    private long varint(byte[] bytes) {
+        long value = 0;
+        for(int shift = 0; ; shift += 7) {
+            byte b = bytes[at++];
+            value |= (long) (b & 0x7f) << shift;
+            if(b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Truncate
+     * This method forgets the parameter generation and every generation after it.
+     */
+    private void truncate(long generation) {
+        while(!segments.isEmpty()) {
+            Segment segment = segments.get(segments.size() - 1);
+            if(segment.first < generation) {
+                int keep = (int) (generation - segment.first);
+                if(keep < segment.count) {
+                    if(segment.position < 0) {
+                        memory -= segment.length - segment.offsets[keep];
+                    }
+                    segment.count = keep;
+                    segment.length = segment.offsets[keep];
+                }
+                break;
+            }
+            segments.remove(segments.size() - 1);
+            if(segment.position < 0) {
+                memory -= segment.length;
+            } else {
+                spillLength = segment.position;
+            }
+        }
+        last = segments.isEmpty() ? -1 : generation - 1;
+        first = segments.isEmpty() ? -1 : first;
+    }
+
+    /**
+     * Trim
+     * This method spills or forgets the oldest segments in memory until the
+     * journal fits the budget, the segment being written is always kept. The
+     * segments before them have all been spilled, the oldest are forgotten
+     * until the next fits the limit of the spill file.
+     */
+    private void trim() {
+        for(int s = 0; memory > budget && s < segments.size() - 1; s++) {
+            Segment segment = segments.get(s);
+            if(segment.position >= 0) {
+                continue;
+            }
+            memory -= segment.length;
+            if(spill == null || segment.length > limit) {
+                forget(s + 1);
+                s = -1;
+                continue;
+            }
+            while(spillLength - spillStart + segment.length > limit) {
+                forget(1);
+                s--;
+            }
+            transfer(segment.bytes, segment.length, spillLength, true);
+            segment.position = spillLength;
+            segment.bytes = null;
+            spillLength += segment.length;
+        }
+    }
+
+    /**
+     * Forget
+     * This method forgets the parameter number of oldest segments, those that
+     * were spilled free their room in the spill file.
+     */
+    private void forget(int count) {
+        for(int n = 0; n < count; n++) {
+            Segment segment = segments.remove(0);
+            if(segment.position >= 0) {
+                spillStart = segment.position + segment.length;
+            }
+        }
+        first = segments.get(0).first;
+    }
+
+    /**
+     * Bytes
+     * This method returns the bytes of the parameter segment, reading them from
+     * the spill file if it has been spilled.
+     */
+    private byte[] bytes(Segment segment) {
+        if(segment.position < 0) {
+            return segment.bytes;
+        }
+        byte[] bytes = new byte[segment.length];
+        transfer(bytes, segment.length, segment.position, false);
+        return bytes;
+    }
+
+    /**
+     * Transfer
+     * This method writes bytes to, or reads them from, the spill file at the
+     * parameter position, wrapping around the end of the file at the limit.
+     *
+     * @param bytes       the bytes to write or to read into
+     * @param length      the number of bytes
+     * @param position    the position of the first byte, before it is wrapped
+     * @param write       true to write the bytes, false to read them
+     */
+    private void transfer(byte[] bytes, int length, long position, boolean write) {
+        try {
+            for(int done = 0; done < length; ) {
+                long offset = (position + done) % limit;
+                int count = (int) Math.min(length - done, limit - offset);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, done, count);
+                while(buffer.hasRemaining()) {
+                    long at = offset + buffer.position() - done;
+                    if(write) {
+                        spill.write(buffer, at);
+                    } else if(spill.read(buffer, at) < 0) {
+                        throw new IOException("the timeline spill file is truncated");
+                    }
+                }
+                done += count;
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Segment
+     * This method returns the segment holding the parameter recorded generation.
+     */
+    private Segment segment(long generation) {
+        int low = 0, high = segments.size() - 1;
+        while(low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if(segments.get(middle).first <= generation) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    /**
+     * Pack
+     * This method returns the parameter grid as a BitBoard, copying grids that
+     * store their nodes some other way into the scratch board.
+     */
+    private BitBoard pack(Grid grid) {
+        if(grid instanceof BitBoard) {
+            return (BitBoard) grid;
+        }
+        BitBoard packed = scratch(grid);
+        for(int i = 0; i < grid.getRows(); i++) {
+            for(int j = 0; j < grid.getColumns(); j++) {
+                packed.setValue(i, j, grid.getValue(i, j));
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Scratch
+     * This method returns the scratch board, sized and ruled as the parameter grid.
+     */
+    private BitBoard scratch(Grid grid) {
+        if(scratch == null || scratch.getRows() != grid.getRows() || scratch.getColumns() != grid.getColumns()) {
+            scratch = new BitBoard(grid.getRows(), grid.getColumns());
+        }
+        if(!scratch.getRule().equals(grid.getRule())) {
+            scratch.setRule(grid.getRule());
+        }
+        return scratch;
+    }
+
+    /**
+     * Segment
+     * A keyframe and the deltas of the generations after it, held in memory
+     * until it is spilled.
+     */
+    private static class Segment {
+        private long first;                        // generation of the keyframe
+        private int count, planes;
+        private long[] hashes = new long[16];      // hash of each generation
+        private int[] offsets = new int[17];       // start of each generation in the bytes
+        private byte[] bytes = new byte[256];
+        private int length;
+        private long position = -1;                // offset in the spill file, -1 while in memory
+
+        public Segment(long first, int planes) {
+            this.first = first;
+            this.planes = planes;
+        }
+
+        public void add(long hash) {
+            if(count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2 + 1);
+            }
+            hashes[count++] = hash;
+            offsets[count] = length;
+        }
+
+        public void putVarint(long value) {
+            ensure(10);
+            for(; (value & ~0x7fL) != 0; value >>>= 7) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        public void putLong(long value) {
+            ensure(8);
+            for(int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void ensure(int extra) {
+            if(length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * @enum TopologyType
+ * @description This enum represents how the edges of the board are joined.
+ * @author Damon Greenhalgh
+ */
+
+public enum TopologyType {
+    DEAD,     // nodes outside of the board are dead
+    TORUS,    // opposite edges are joined
+    KLEIN,    // left and right edges are joined, top and bottom are joined mirrored
+    UNBOUNDED, // there are no edges, the board is a window onto an unbounded universe, see UnboundedGrid
+}
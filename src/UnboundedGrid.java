@@ -0,0 +1,66 @@
+/**
+ * @class UnboundedGrid
+ * @description This class defines a grid that is a window onto an unbounded
+ * universe, see SparseUniverse. The rows and columns of the grid are the region
+ * of the universe with its top left at (0, 0), the nodes are stepped across the
+ * whole universe, so patterns that leave the window keep evolving and can come
+ * back into it. The hash, births, deaths and population are those of the whole
+ * universe. The topology of the grid is UNBOUNDED.
+ * @author Damon Greenhalgh
+ */
+
+public class UnboundedGrid implements Grid {
+
+    // Fields
+    private SparseUniverse universe = new SparseUniverse();
+    private int rows, columns;
+
+    /**
+     * Constructor
+     * Generates an empty universe seen through a window of the parameter size.
+     */
+    public UnboundedGrid(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    // Accessors/Mutators
+    public SparseUniverse getUniverse() { return universe; }
+    public int getRows() { return rows; }
+    public int getColumns() { return columns; }
+    public boolean getState(int i, int j) { return universe.getState(i, j); }
+    public void setState(int i, int j, boolean state) { universe.setState(i, j, state); }
+    public Rule getRule() { return universe.getRule(); }
+    public void setRule(Rule rule) { universe.setRule(rule); }
+    public long getHash() { return universe.getHash(); }
+    public long getBirths() { return universe.getBirths(); }
+    public long getDeaths() { return universe.getDeaths(); }
+    public long getEvaluated() { return (long) universe.getTileCount() << 12; }
+    public long population() { return universe.population(); }
+    public TopologyType getTopology() { return TopologyType.UNBOUNDED; }
+    public void setTopology(TopologyType topology) {
+        if(topology != TopologyType.UNBOUNDED) {
+            throw new IllegalArgumentException("an unbounded grid can not be joined as a " + topology);
+        }
+    }
+
+    /**
+     * Clear
+     * This method clears the universe, freeing every tile.
+     */
+    @Override
+    public void clear() {
+        universe.clear();
+    }
+
+    /**
+     * Next
+     * This method generates the next iteration of the whole universe.
+     *
+     * @return boolean    true if the game has halted, false if it has not.
+     */
+    @Override
+    public boolean next() {
+        return universe.next();
+    }
+}
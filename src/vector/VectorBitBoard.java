@@ -0,0 +1,182 @@
+/**
+ * @class VectorBitBoard
+ * @description This class defines a bit-packed board that is stepped with the
+ * vector API. The words inside each row are loaded into vector lanes, as many
+ * words as the widest vector the processor supports, and the adder logic of
+ * BitBoard is applied to every lane at once. The first and last words of each
+ * row, and the words left over at the end of a row, are stepped by BitBoard.
+ * This class needs the jdk.incubator.vector module to compile and run, see
+ * BitBoard.create() for choosing it only when the module is present.
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorBitBoard extends ParallelBitBoard {
+
+    // Fields
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Constructor
+     * Generates an empty board stepped on the parameter number of threads.
+     */
+    public VectorBitBoard(int rows, int columns, int threads) {
+        super(rows, columns, threads);
+    }
+
+    // Accessors/Mutators
+    @Override
+    public String getEngine() { return "vector, " + SPECIES.length() + " words per step"; }
+
+    /**
+     * EvolveSpan
+     * This method writes the next iteration of the words [from, to) of a row,
+     * a vector of words at a time. The words left over are stepped by BitBoard.
+     */
+    @Override
+    protected void evolveSpan(long[] above, int aOff, long[] current, int row, long[] below, int bOff,
+                              long[] next, int from, int to) {
+        int births = getRule().getBirths(), survivals = getRule().getSurvivals();
+        int k = births == 1 << 3 && survivals == (1 << 2 | 1 << 3)
+              ? evolveLife(above, aOff, current, row, below, bOff, next, from, to)
+              : evolveRule(births, survivals, above, aOff, current, row, below, bOff, next, from, to);
+        if(k < to) {
+            super.evolveSpan(above, aOff, current, row, below, bOff, next, k, to);
+        }
+    }
+
+    /**
+     * EvolveLife
+     * This method steps the whole vectors of words of the span under B3/S23, the
+     * vector form of BitBoard.evolve(). The neighbours are summed with the same
+     * tree of full adders into a 3 bit count.
+     *
+     * @return int    the first word of the span that was not stepped.
+     */
+    private static int evolveLife(long[] above, int aOff, long[] current, int row, long[] below, int bOff,
+                                  long[] next, int from, int to) {
+        int k = from;
+        for(; k + SPECIES.length() <= to; k += SPECIES.length()) {
+            LongVector aCur = LongVector.fromArray(SPECIES, above, aOff + k);
+            LongVector cCur = LongVector.fromArray(SPECIES, current, row + k);
+            LongVector bCur = LongVector.fromArray(SPECIES, below, bOff + k);
+
+            // align the west and east neighbours of each node with the node itself
+            LongVector aW = west(LongVector.fromArray(SPECIES, above, aOff + k - 1), aCur);
+            LongVector aE = east(aCur, LongVector.fromArray(SPECIES, above, aOff + k + 1));
+            LongVector cW = west(LongVector.fromArray(SPECIES, current, row + k - 1), cCur);
+            LongVector cE = east(cCur, LongVector.fromArray(SPECIES, current, row + k + 1));
+            LongVector bW = west(LongVector.fromArray(SPECIES, below, bOff + k - 1), bCur);
+            LongVector bE = east(bCur, LongVector.fromArray(SPECIES, below, bOff + k + 1));
+
+            // row above and row below, full adders
+            LongVector aX = aW.lanewise(VectorOperators.XOR, aCur), bX = bW.lanewise(VectorOperators.XOR, bCur);
+            LongVector aSum = aX.lanewise(VectorOperators.XOR, aE), aCarry = aW.and(aCur).or(aE.and(aX));
+            LongVector bSum = bX.lanewise(VectorOperators.XOR, bE), bCarry = bW.and(bCur).or(bE.and(bX));
+
+            // current row, half adder
+            LongVector cSum = cW.lanewise(VectorOperators.XOR, cE), cCarry = cW.and(cE);
+
+            // ones
+            LongVector abSum = aSum.lanewise(VectorOperators.XOR, bSum);
+            LongVector s0 = abSum.lanewise(VectorOperators.XOR, cSum);
+            LongVector onesCarry = aSum.and(bSum).or(cSum.and(abSum));
+
+            // twos
+            LongVector abCarry = aCarry.lanewise(VectorOperators.XOR, bCarry);
+            LongVector t = abCarry.lanewise(VectorOperators.XOR, cCarry);
+            LongVector fours = aCarry.and(bCarry).or(cCarry.and(abCarry));
+            LongVector s1 = t.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector s2 = fours.lanewise(VectorOperators.XOR, t.and(onesCarry));
+
+            // alive with 2 or 3 neighbours survives, dead with 3 neighbours is born
+            s1.and(s0.or(cCur)).lanewise(VectorOperators.AND_NOT, s2).intoArray(next, row + k);
+        }
+        return k;
+    }
+
+    /**
+     * EvolveRule
+     * This method steps the whole vectors of words of the span under a life-like
+     * rule, the vector form of BitBoard.evolve(int, int, ...). The neighbours are
+     * summed into a 4 bit count and each node is matched against the counts of
+     * the rule that give birth when dead or survival when alive.
+     *
+     * @param births       bit n is set if n neighbours give birth, see Rule
+     * @param survivals    bit n is set if n neighbours give survival, see Rule
+     * @return int         the first word of the span that was not stepped.
+     */
+    private static int evolveRule(int births, int survivals,
+                                  long[] above, int aOff, long[] current, int row, long[] below, int bOff,
+                                  long[] next, int from, int to) {
+        int k = from;
+        for(; k + SPECIES.length() <= to; k += SPECIES.length()) {
+            LongVector aCur = LongVector.fromArray(SPECIES, above, aOff + k);
+            LongVector cCur = LongVector.fromArray(SPECIES, current, row + k);
+            LongVector bCur = LongVector.fromArray(SPECIES, below, bOff + k);
+            LongVector aW = west(LongVector.fromArray(SPECIES, above, aOff + k - 1), aCur);
+            LongVector aE = east(aCur, LongVector.fromArray(SPECIES, above, aOff + k + 1));
+            LongVector cW = west(LongVector.fromArray(SPECIES, current, row + k - 1), cCur);
+            LongVector cE = east(cCur, LongVector.fromArray(SPECIES, current, row + k + 1));
+            LongVector bW = west(LongVector.fromArray(SPECIES, below, bOff + k - 1), bCur);
+            LongVector bE = east(bCur, LongVector.fromArray(SPECIES, below, bOff + k + 1));
+
+            LongVector aX = aW.lanewise(VectorOperators.XOR, aCur), bX = bW.lanewise(VectorOperators.XOR, bCur);
+            LongVector aSum = aX.lanewise(VectorOperators.XOR, aE), aCarry = aW.and(aCur).or(aE.and(aX));
+            LongVector bSum = bX.lanewise(VectorOperators.XOR, bE), bCarry = bW.and(bCur).or(bE.and(bX));
+            LongVector cSum = cW.lanewise(VectorOperators.XOR, cE), cCarry = cW.and(cE);
+
+            LongVector abSum = aSum.lanewise(VectorOperators.XOR, bSum);
+            LongVector s0 = abSum.lanewise(VectorOperators.XOR, cSum);
+            LongVector onesCarry = aSum.and(bSum).or(cSum.and(abSum));
+            LongVector abCarry = aCarry.lanewise(VectorOperators.XOR, bCarry);
+            LongVector t = abCarry.lanewise(VectorOperators.XOR, cCarry);
+            LongVector fours = aCarry.and(bCarry).or(cCarry.and(abCarry));
+            LongVector s1 = t.lanewise(VectorOperators.XOR, onesCarry);
+            LongVector s2 = fours.lanewise(VectorOperators.XOR, t.and(onesCarry));
+            LongVector s3 = fours.and(t).and(onesCarry);
+
+            LongVector result = LongVector.zero(SPECIES);
+            for(int counts = births | survivals; counts != 0; counts &= counts - 1) {
+                int n = Integer.numberOfTrailingZeros(counts);
+                LongVector match = bit(s0, n & 1).and(bit(s1, n & 2)).and(bit(s2, n & 4)).and(bit(s3, n & 8));
+                LongVector when = ((births >>> n) & 1) == 0 ? cCur
+                                : ((survivals >>> n) & 1) == 0 ? cCur.not() : LongVector.broadcast(SPECIES, -1L);
+                result = result.or(match.and(when));
+            }
+            result.intoArray(next, row + k);
+        }
+        return k;
+    }
+
+    /**
+     * West
+     * This method shifts the nodes of each lane one node east, bringing in the
+     * last node of the word before, so each node lines up with its west neighbour.
+     */
+    private static LongVector west(LongVector prev, LongVector cur) {
+        return cur.lanewise(VectorOperators.LSHL, 1).or(prev.lanewise(VectorOperators.LSHR, 63));
+    }
+
+    /**
+     * East
+     * This method shifts the nodes of each lane one node west, bringing in the
+     * first node of the word after, so each node lines up with its east neighbour.
+     */
+    private static LongVector east(LongVector cur, LongVector next) {
+        return cur.lanewise(VectorOperators.LSHR, 1).or(next.lanewise(VectorOperators.LSHL, 63));
+    }
+
+    /**
+     * Bit
+     * This method returns the parameter bit of the neighbour count if set is
+     * not 0, otherwise its complement.
+     */
+    private static LongVector bit(LongVector sum, int set) {
+        return set != 0 ? sum : sum.not();
+    }
+}
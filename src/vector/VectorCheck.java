@@ -0,0 +1,111 @@
+/**
+ * @class VectorCheck
+ * @description This class is used to check the vector engine against the
+ * scalar one. Random soups are stepped on a VectorBitBoard and on a BitBoard
+ * side by side and compared word for word after every generation, for widths
+ * that are and are not a multiple of the vector lanes, on every topology of the
+ * bit-packed board and under life and under another life-like rule. The check
+ * fails, exiting with status 1, if a word, the hash, the births or the deaths
+ * of the two boards differ. Like VectorBitBoard it needs the jdk.incubator.vector
+ * module to compile and run.
+ *
+ * Usage: java --add-modules jdk.incubator.vector VectorCheck [generations]
+ * @author Damon Greenhalgh
+ */
+
+ // dependencies
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeSet;
+import jdk.incubator.vector.LongVector;
+
+public class VectorCheck {
+
+    // Fields
+    private static final int ROWS = 48;
+    private static final long SEED = 1;
+    private static final Rule[] RULES = { Rule.LIFE, Rule.parse("B36/S23") };
+    private static final TopologyType[] TOPOLOGIES = { TopologyType.DEAD, TopologyType.TORUS, TopologyType.KLEIN };
+
+    public static void main(String[] args) {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int lanes = LongVector.SPECIES_PREFERRED.length();
+        System.out.println("lanes: " + lanes);
+
+        // whole rows of lanes, a lane more or less, and rows ending part way into a word
+        TreeSet<Integer> widths = new TreeSet<>();
+        for(int words : new int[] { 1, 2, lanes, lanes + 1, lanes + 2, 2 * lanes + 2, 3 * lanes + 3 }) {
+            widths.add(words * 64);
+            widths.add(words * 64 - 23);
+        }
+
+        boolean failed = false;
+        for(int columns : widths) {
+            for(TopologyType topology : TOPOLOGIES) {
+                for(Rule rule : RULES) {
+                    for(int threads = 1; threads <= 2; threads++) {
+                        failed |= check(columns, topology, rule, threads, generations);
+                    }
+                }
+            }
+        }
+        if(failed) {
+            System.out.println("FAILED: VectorBitBoard differs from BitBoard");
+            System.exit(1);
+        }
+        System.out.println("ok");
+    }
+
+    /**
+     * Check
+     * This method steps the same soup on both engines, comparing them after
+     * every generation.
+     *
+     * @return boolean    true if the boards differed, false otherwise.
+     */
+    private static boolean check(int columns, TopologyType topology, Rule rule, int threads, int generations) {
+        VectorBitBoard vector = new VectorBitBoard(ROWS, columns, threads);
+        BitBoard scalar = new BitBoard(ROWS, columns);
+        vector.setTopology(topology);
+        scalar.setTopology(topology);
+        vector.setRule(rule);
+        scalar.setRule(rule);
+        Random random = new Random(SEED);
+        for(int i = 0; i < ROWS; i++) {
+            for(int j = 0; j < columns; j++) {
+                boolean state = random.nextInt(8) < 3;
+                vector.setState(i, j, state);
+                scalar.setState(i, j, state);
+            }
+        }
+
+        int mismatches = 0;
+        for(int g = 1; g <= generations; g++) {
+            vector.next();
+            scalar.next();
+            if(!same(vector, scalar)) {
+                mismatches++;
+            }
+        }
+        vector.shutdown();
+        if(mismatches > 0) {
+            System.out.printf(Locale.ROOT, "%d columns, %s, %s, %d threads: %d of %d generations differ%n",
+                columns, topology, rule, threads, mismatches, generations);
+        }
+        return mismatches > 0;
+    }
+
+    /**
+     * Same
+     * This method compares two boards of the same size word for word, along
+     * with the hash and the changes made by the last iteration.
+     */
+    private static boolean same(BitBoard a, BitBoard b) {
+        for(int index = 0; index < a.getRows() * a.getWords(); index++) {
+            if(a.getWord(index) != b.getWord(index)) {
+                return false;
+            }
+        }
+        return a.getHash() == b.getHash() && a.getBirths() == b.getBirths() && a.getDeaths() == b.getDeaths();
+    }
+}